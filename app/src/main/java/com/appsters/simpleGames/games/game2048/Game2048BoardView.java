@@ -0,0 +1,428 @@
+package com.appsters.simpleGames.games.game2048;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.SparseIntArray;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.appsters.simpleGames.games.game2048.model.GameBoard;
+
+/**
+ * Draws the 2048 board: the empty grid and every tile, on one canvas. The grid takes its
+ * size from the board it is given, with margins and text scaled to the cells.
+ *
+ * Each tile value is rendered once into a bitmap at the current cell size, and the
+ * paints are made up front, so a frame only copies bitmaps. When the board changes, every
+ * tile becomes a sprite moving to its new cell: tiles slide, merged tiles pop in where
+ * their parents meet, new tiles pop in and tiles that are gone fade out. Each frame is
+ * redrawn on the display's clock until the last sprite has settled.
+ *
+ * A board that arrives while the last change is still animating takes over from it: each
+ * tile starts from wherever it is drawn at that moment, so however fast moves come in,
+ * the screen runs one animation towards the latest board instead of queueing them up or
+ * snapping tiles back to where they were headed.
+ */
+public class Game2048BoardView extends View {
+
+    private static final int MAX_CELLS = GameBoard.MAX_SIZE * GameBoard.MAX_SIZE;
+    private static final long SLIDE_MS = 100;
+    private static final long POP_MS = 150;
+    private static final float CORNER_RADIUS = 8f;
+    private static final float TEXT_SIZE_SP = 24f;
+    // Text takes at most this much of a cell's height
+    private static final float TEXT_CELL_RATIO = 0.45f;
+    private static final int MAX_EXPONENT = GameBoard.MAX_EXPONENT;
+
+    // Sprite kinds, in drawing order
+    private static final int FADE = 0;
+    private static final int SLIDE = 1;
+    private static final int POP = 2;
+
+    // Every tile on the board and merged tiles' parents take at most two per cell; the
+    // rest is room for tiles still fading out from earlier boards
+    private static final int MAX_SPRITES = 4 * MAX_CELLS;
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint tilePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF rect = new RectF();
+    // Margin between the cells of a 4x4 grid; larger grids get proportionally less
+    private final float baseMargin;
+    private final float maxTextSize;
+
+    private int size = GameBoard.MIN_SIZE;
+    private float gridMargin;
+    private float cellSize;
+    // Tile images by exponent, for the current cell size
+    private final Bitmap[] tileBitmaps = new Bitmap[MAX_EXPONENT + 1];
+
+    // The sprites drawn, and a second list the next board's sprites are built in
+    private Sprites sprites = new Sprites();
+    private Sprites nextSprites = new Sprites();
+
+    // Where a sprite is at some moment, as worked out by evaluate(): its column and row
+    // (fractional while it moves), scale and opacity
+    private float stateCol;
+    private float stateRow;
+    private float stateScale;
+    private float stateAlpha;
+
+    // Sprite of every tile on screen, by tile id
+    private final SparseIntArray liveSprites = new SparseIntArray();
+    // Cell of every tile on the board being shown, by tile id
+    private final SparseIntArray nextCells = new SparseIntArray();
+    // Ids of the tiles merged into tiles on the board being shown
+    private final int[] parentIds = new int[2 * MAX_CELLS];
+    private int parentCount = 0;
+
+    /**
+     * Sprites as parallel arrays, made once and reused.
+     */
+    private static final class Sprites {
+        final int[] kinds = new int[MAX_SPRITES];
+        final int[] ids = new int[MAX_SPRITES];
+        final int[] exponents = new int[MAX_SPRITES];
+        // Column and row it starts at, and the cell it ends at (fading sprites stay put)
+        final float[] fromCols = new float[MAX_SPRITES];
+        final float[] fromRows = new float[MAX_SPRITES];
+        final int[] to = new int[MAX_SPRITES];
+        // Animation time it starts at, and its scale and opacity then
+        final long[] starts = new long[MAX_SPRITES];
+        final float[] startScales = new float[MAX_SPRITES];
+        final float[] startAlphas = new float[MAX_SPRITES];
+        // A merged tile's parent, hidden under the merged tile once it arrives
+        final boolean[] hidden = new boolean[MAX_SPRITES];
+        int count = 0;
+    }
+
+    public Game2048BoardView(Context context) {
+        this(context, null);
+    }
+
+    public Game2048BoardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        baseMargin = 8 * density;
+        maxTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                getResources().getDisplayMetrics());
+        cellPaint.setColor(Color.parseColor("#CDC1B4"));
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        TypedArray a = context.obtainStyledAttributes(new int[] { android.R.attr.textColorPrimary });
+        textPaint.setColor(a.getColor(0, Color.BLACK));
+        a.recycle();
+    }
+
+    /**
+     * Shows a new board. With animate, tiles move from where they are drawn now;
+     * otherwise, or if the board has a different size, the board is shown as is.
+     */
+    public void setBoard(@Nullable Tile[][] board, boolean animate) {
+        Sprites old = sprites;
+        Sprites next = nextSprites;
+        next.count = 0;
+        if (board == null) {
+            old.count = 0;
+            invalidate();
+            return;
+        }
+        if (board.length != size) {
+            size = board.length;
+            animate = false;
+            layoutGrid(getWidth(), getHeight());
+        }
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        liveSprites.clear();
+        if (animate) {
+            for (int i = 0; i < old.count; i++) {
+                if (old.kinds[i] != FADE && !old.hidden[i])
+                    liveSprites.put(old.ids[i], i);
+            }
+        }
+        parentCount = 0;
+        for (Tile[] row : board) {
+            for (Tile tile : row) {
+                if (tile != null && tile.isMerged()) {
+                    parentIds[parentCount++] = tile.getParentA();
+                    parentIds[parentCount++] = tile.getParentB();
+                }
+            }
+        }
+
+        nextCells.clear();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                Tile tile = board[row][col];
+                if (tile == null)
+                    continue;
+                int id = tile.getId();
+                int cell = row * size + col;
+                int exponent = exponentOf(tile.getValue());
+                nextCells.put(id, cell);
+                int live = liveSprites.get(id, -1);
+                if (!animate) {
+                    addSprite(next, SLIDE, id, exponent, col, row, cell, 0, 1f, 1f);
+                } else if (live >= 0) {
+                    evaluate(old, live, now);
+                    addSprite(next, SLIDE, id, exponent, stateCol, stateRow, cell, now, stateScale, 1f);
+                } else if (tile.isMerged()) {
+                    // The parents slide together, then the merged tile pops in over them
+                    addParent(old, next, tile.getParentA(), cell, now);
+                    addParent(old, next, tile.getParentB(), cell, now);
+                    addSprite(next, POP, id, exponent, col, row, cell, now + SLIDE_MS, 0f, 1f);
+                } else {
+                    addSprite(next, POP, id, exponent, col, row, cell, now, 0f, 1f);
+                }
+            }
+        }
+
+        // Whatever else is still visible fades out from where it is
+        if (animate) {
+            for (int i = 0; i < old.count; i++) {
+                int id = old.ids[i];
+                if (nextCells.get(id, -1) >= 0 || isParent(id))
+                    continue;
+                evaluate(old, i, now);
+                if (stateAlpha <= 0f || stateScale <= 0f)
+                    continue;
+                // A parent that has arrived goes with its merged tile
+                if (old.hidden[i] && now - old.starts[i] >= SLIDE_MS)
+                    continue;
+                if (old.kinds[i] == FADE) {
+                    // Already fading: keeps its own clock
+                    addSprite(next, FADE, id, old.exponents[i], old.fromCols[i], old.fromRows[i], -1,
+                            old.starts[i], old.startScales[i], old.startAlphas[i]);
+                } else {
+                    addSprite(next, FADE, id, old.exponents[i], stateCol, stateRow, -1, now, stateScale, stateAlpha);
+                }
+            }
+        }
+
+        sprites = next;
+        nextSprites = old;
+        postInvalidateOnAnimation();
+    }
+
+    private void addParent(Sprites old, Sprites next, int parentId, int cell, long now) {
+        int live = liveSprites.get(parentId, -1);
+        if (live < 0)
+            return;
+        evaluate(old, live, now);
+        int i = addSprite(next, SLIDE, parentId, old.exponents[live], stateCol, stateRow, cell, now, stateScale, 1f);
+        if (i >= 0)
+            next.hidden[i] = true;
+    }
+
+    private boolean isParent(int id) {
+        for (int i = 0; i < parentCount; i++) {
+            if (parentIds[i] == id)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the sprite's index, or -1 if the list is full (only ever the case for tiles
+     *         fading out)
+     */
+    private static int addSprite(Sprites list, int kind, int id, int exponent, float fromCol, float fromRow,
+            int to, long start, float startScale, float startAlpha) {
+        if (list.count == MAX_SPRITES)
+            return -1;
+        int i = list.count++;
+        list.kinds[i] = kind;
+        list.ids[i] = id;
+        list.exponents[i] = exponent;
+        list.fromCols[i] = fromCol;
+        list.fromRows[i] = fromRow;
+        list.to[i] = to;
+        list.starts[i] = start;
+        list.startScales[i] = startScale;
+        list.startAlphas[i] = startAlpha;
+        list.hidden[i] = false;
+        return i;
+    }
+
+    /**
+     * Works out where a sprite is at an animation time, into the state fields.
+     *
+     * @return whether it is still animating
+     */
+    private boolean evaluate(Sprites list, int i, long now) {
+        long local = now - list.starts[i];
+        int kind = list.kinds[i];
+        if (kind == POP) {
+            stateCol = list.fromCols[i];
+            stateRow = list.fromRows[i];
+            stateAlpha = 1f;
+            if (local < 0) {
+                stateScale = 0f; // not shown until its parents arrive
+                return true;
+            }
+            float progress = Math.min(1f, (float) local / POP_MS);
+            stateScale = progress;
+            return progress < 1f;
+        }
+
+        float progress = local < 0 ? 0f : Math.min(1f, (float) local / SLIDE_MS);
+        stateScale = list.startScales[i] + (1f - list.startScales[i]) * progress;
+        if (kind == FADE) {
+            stateCol = list.fromCols[i];
+            stateRow = list.fromRows[i];
+            stateAlpha = list.startAlphas[i] * (1f - progress);
+        } else {
+            int to = list.to[i];
+            stateCol = list.fromCols[i] + (to % size - list.fromCols[i]) * progress;
+            stateRow = list.fromRows[i] + (to / size - list.fromRows[i]) * progress;
+            // A parent stays under the merged tile until that has popped in
+            if (list.hidden[i]) {
+                boolean covered = local >= SLIDE_MS + POP_MS;
+                stateAlpha = covered ? 0f : 1f;
+                return !covered;
+            }
+            stateAlpha = 1f;
+        }
+        return progress < 1f;
+    }
+
+    private static int exponentOf(int value) {
+        return Math.min(MAX_EXPONENT, Integer.numberOfTrailingZeros(value));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        layoutGrid(w, h);
+    }
+
+    /**
+     * Sizes the cells and their text for the view and grid size, dropping tile images made
+     * for the old sizes.
+     */
+    private void layoutGrid(int w, int h) {
+        gridMargin = baseMargin * GameBoard.MIN_SIZE / size;
+        // | M | Tile | M | Tile | M | ... | M |
+        cellSize = Math.max(0, (Math.min(w, h) - (size + 1) * gridMargin) / size);
+        textPaint.setTextSize(Math.min(maxTextSize, cellSize * TEXT_CELL_RATIO));
+        for (int i = 0; i < tileBitmaps.length; i++)
+            tileBitmaps[i] = null;
+    }
+
+    private float columnLeft(float col) {
+        return gridMargin + col * (cellSize + gridMargin);
+    }
+
+    private float rowTop(float row) {
+        return gridMargin + row * (cellSize + gridMargin);
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (cellSize <= 0)
+            return;
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                rect.set(columnLeft(col), rowTop(row), columnLeft(col) + cellSize, rowTop(row) + cellSize);
+                canvas.drawRoundRect(rect, CORNER_RADIUS, CORNER_RADIUS, cellPaint);
+            }
+        }
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        boolean running = false;
+        for (int kind = FADE; kind <= POP; kind++) {
+            for (int i = 0; i < sprites.count; i++) {
+                if (sprites.kinds[i] == kind)
+                    running |= drawSprite(canvas, i, now);
+            }
+        }
+
+        if (running)
+            postInvalidateOnAnimation();
+    }
+
+    /**
+     * @return whether the sprite is still animating
+     */
+    private boolean drawSprite(Canvas canvas, int i, long now) {
+        boolean running = evaluate(sprites, i, now);
+        if (stateAlpha <= 0f || stateScale <= 0f)
+            return running;
+        // Before rect is set: making the bitmap uses it
+        Bitmap bitmap = tileBitmap(sprites.exponents[i]);
+        float left = columnLeft(stateCol);
+        float top = rowTop(stateRow);
+        float inset = cellSize * (1f - stateScale) / 2f;
+        rect.set(left + inset, top + inset, left + cellSize - inset, top + cellSize - inset);
+        bitmapPaint.setAlpha((int) (255 * stateAlpha));
+        canvas.drawBitmap(bitmap, null, rect, bitmapPaint);
+        return running;
+    }
+
+    private Bitmap tileBitmap(int exponent) {
+        Bitmap bitmap = tileBitmaps[exponent];
+        if (bitmap != null)
+            return bitmap;
+
+        int size = Math.max(1, Math.round(cellSize));
+        bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        tilePaint.setColor(tileColor(1 << exponent));
+        rect.set(0, 0, size, size);
+        canvas.drawRoundRect(rect, CORNER_RADIUS, CORNER_RADIUS, tilePaint);
+
+        String text = String.valueOf(1 << exponent);
+        float textSize = textPaint.getTextSize();
+        float width = textPaint.measureText(text);
+        if (width > size * 0.9f)
+            textPaint.setTextSize(textSize * size * 0.9f / width); // long numbers shrink to fit
+        float baseline = size / 2f - (textPaint.descent() + textPaint.ascent()) / 2f;
+        canvas.drawText(text, size / 2f, baseline, textPaint);
+        textPaint.setTextSize(textSize);
+
+        tileBitmaps[exponent] = bitmap;
+        return bitmap;
+    }
+
+    private static int tileColor(int value) {
+        switch (value) {
+            case 2:
+                return Color.parseColor("#EEE4DA");
+            case 4:
+                return Color.parseColor("#EDE0C8");
+            case 8:
+                return Color.parseColor("#F2B179");
+            case 16:
+                return Color.parseColor("#F59563");
+            case 32:
+                return Color.parseColor("#F67C5F");
+            case 64:
+                return Color.parseColor("#F65E3B");
+            case 128:
+                return Color.parseColor("#EDCF72");
+            case 256:
+                return Color.parseColor("#EDCC61");
+            case 512:
+                return Color.parseColor("#EDC850");
+            case 1024:
+                return Color.parseColor("#EDC53F");
+            case 2048:
+                return Color.parseColor("#EDC22E");
+            default:
+                return Color.parseColor("#CDC1B4");
+        }
+    }
+}
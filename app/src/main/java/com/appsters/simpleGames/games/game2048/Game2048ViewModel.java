@@ -1,6 +1,9 @@
 package com.appsters.simpleGames.games.game2048;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -9,17 +12,46 @@ import com.appsters.simpleGames.app.data.model.Score;
 import com.appsters.simpleGames.app.data.repository.LeaderboardRepository;
 import com.appsters.simpleGames.app.data.repository.UserRepository;
 import com.appsters.simpleGames.app.util.GameType;
+import com.appsters.simpleGames.games.game2048.model.ExpectimaxSearch;
+import com.appsters.simpleGames.games.game2048.model.GameBoard;
+import com.appsters.simpleGames.games.game2048.model.GameRecord;
+import com.appsters.simpleGames.games.game2048.model.Replay;
+import com.appsters.simpleGames.games.game2048.model.SavedGame;
+import com.appsters.simpleGames.games.game2048.model.UndoHistory;
 import com.appsters.simpleGames.games.game2048.repository.Cam2048Repository;
 import com.google.firebase.auth.FirebaseAuth;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
 import java.util.Random;
 
+/**
+ * The game itself is played on a {@link GameBoard} of 4x4 up to 8x8; {@link Tile}s mirror
+ * it so the screen can follow each tile as it slides and merges. A move goes from one
+ * board into a second one kept for the purpose, and the tile grids are reused the same
+ * way, so only new and merged tiles are allocated.
+ *
+ * Hints and autoplay come from an {@link ExpectimaxSearch} running off the main thread, on
+ * the classic 4x4 board only. A swipe, an undo or a new game cancels any search in
+ * progress and stops autoplay. High scores and the leaderboard also only count 4x4 games.
+ *
+ * Every move first records the state it started from in an {@link UndoHistory}, which is
+ * saved along with the game. The game is saved when the screen is left and every few
+ * moves in between; the repository writes saves in the background.
+ *
+ * Each game also keeps a {@link GameRecord}: a seed and every move made. New tiles are
+ * drawn from the seed rather than a shared random source, so the record alone reproduces
+ * the game (see {@link Replay}), and a move that is undone and made again brings back the
+ * same tile.
+ */
 public class Game2048ViewModel extends AndroidViewModel {
 
-    private static final int SIZE = 4;
+    private static final long HINT_MILLIS = 400;
+    // Autoplay thinks for less so it keeps up several moves a second
+    private static final long AUTOPLAY_MILLIS = 120;
+    // A crash loses at most this many moves
+    private static final int AUTOSAVE_MOVES = 5;
+    private static final String[] DIRECTION_HINTS = { "left ←", "up ↑", "right →", "down ↓" };
+
     private final MutableLiveData<Tile[][]> _board = new MutableLiveData<>();
     public final LiveData<Tile[][]> board = _board;
     private final MutableLiveData<Integer> _score = new MutableLiveData<>(0);
@@ -28,14 +60,39 @@ public class Game2048ViewModel extends AndroidViewModel {
     public final LiveData<Boolean> gameOver = _gameOver;
     private final MutableLiveData<Integer> _highScore = new MutableLiveData<>(0);
     public final LiveData<Integer> highScore = _highScore;
+    private final MutableLiveData<String> _hintText = new MutableLiveData<>("");
+    public final LiveData<String> hintText = _hintText;
+    private final MutableLiveData<Boolean> _autoplay = new MutableLiveData<>(false);
+    public final LiveData<Boolean> autoplay = _autoplay;
+    private final MutableLiveData<Boolean> _canUndo = new MutableLiveData<>(false);
+    public final LiveData<Boolean> canUndo = _canUndo;
+    private final MutableLiveData<Boolean> _searchAvailable = new MutableLiveData<>(true);
+    public final LiveData<Boolean> searchAvailable = _searchAvailable;
 
-    private Tile[][] boardArray = new Tile[SIZE][SIZE];
+    // The board the rules run on, and the tiles shown for it. Each move goes into the
+    // second board and grid, which are then swapped in.
+    private GameBoard board;
+    private GameBoard movedBoard;
+    private Tile[][] boardArray;
+    private Tile[][] movedArray;
+    // Last tile id handed out. Not reset by a new game, so a new tile never takes the id
+    // of one still on screen from the last game.
+    private int lastTileId = Tile.NO_PARENT;
+    private UndoHistory history;
+    // Null for a game saved before records were kept; its moves go unrecorded
+    private GameRecord record;
+    private int movesSinceSave = 0;
     private final Random random = new Random();
-    private int moveScore = 0;
     private final Cam2048Repository repository;
     private final LeaderboardRepository leaderboardRepository;
     private final UserRepository userRepository;
 
+    private final ExpectimaxSearch search = new ExpectimaxSearch();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ExpectimaxSearch.Job searchJob;
+    // Bumped whenever a search is started or cancelled so late results are dropped
+    private int searchRequest = 0;
+
     public Game2048ViewModel(Application application) {
         super(application);
         repository = new Cam2048Repository(application);
@@ -45,194 +102,324 @@ public class Game2048ViewModel extends AndroidViewModel {
         loadGame();
     }
 
+    public int getBoardSize() {
+        return board.size();
+    }
+
+    /**
+     * Sets up empty boards, tile grids and history for a board size.
+     */
+    private void setBoardSize(int size) {
+        if (board != null && board.size() == size) {
+            board.clear();
+            history.clear();
+        } else {
+            board = new GameBoard(size);
+            movedBoard = new GameBoard(size);
+            boardArray = new Tile[size][size];
+            movedArray = new Tile[size][size];
+            history = new UndoHistory(size);
+        }
+        _searchAvailable.setValue(board.isPacked());
+    }
+
     private void loadGame() {
-        int[][] savedBoard = repository.getSavedBoard();
-        int savedScore = repository.getSavedScore();
-
-        if (savedBoard != null && savedScore != -1) {
-            // Convert int[][] to Tile[][]
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    if (savedBoard[i][j] != 0) {
-                        boardArray[i][j] = new Tile(savedBoard[i][j]);
-                    } else {
-                        boardArray[i][j] = null;
-                    }
-                }
+        SavedGame saved = repository.getSavedGame();
+        if (saved == null) {
+            newGame(repository.getBoardSize());
+            return;
+        }
+
+        setBoardSize(saved.board.size());
+        if (saved.undoHistory != null) {
+            try {
+                history.readBytes(saved.undoHistory);
+            } catch (IOException e) {
+                history.clear(); // the game itself is still fine
             }
-            _score.setValue(savedScore);
-            _board.setValue(boardArray);
-        } else {
-            newGame();
         }
+        _canUndo.setValue(!history.isEmpty());
+        record = null;
+        if (saved.record != null) {
+            try {
+                record = GameRecord.fromBytes(saved.record);
+            } catch (IOException e) {
+                // Play on without one
+            }
+            // A record that doesn't lead to the saved board is no use for replays
+            if (record != null && !replaysTo(record, saved.board, saved.score))
+                record = null;
+        }
+        showBoard(saved.board, saved.score);
     }
 
     public void saveGameState() {
         Integer currentScore = _score.getValue();
         if (currentScore != null) {
             // Save high score if needed
-            if (currentScore > _highScore.getValue()) {
+            if (isClassic() && currentScore > _highScore.getValue()) {
                 _highScore.postValue(currentScore);
                 repository.saveHighScore(currentScore);
                 submitScoreToLeaderboard(currentScore);
             }
-
-            // Save game state if not over
-            if (!Boolean.TRUE.equals(_gameOver.getValue())) {
-                int[][] intBoard = new int[SIZE][SIZE];
-                for (int i = 0; i < SIZE; i++) {
-                    for (int j = 0; j < SIZE; j++) {
-                        intBoard[i][j] = boardArray[i][j] != null ? boardArray[i][j].getValue() : 0;
-                    }
-                }
-                repository.saveGameState(intBoard, currentScore);
-            }
+            saveGame();
         }
     }
 
+    /**
+     * Queues the game to be saved, unless it is over.
+     */
+    private void saveGame() {
+        movesSinceSave = 0;
+        Integer currentScore = _score.getValue();
+        if (currentScore == null || !board.canMove())
+            return;
+        GameBoard saved = new GameBoard(board.size());
+        saved.copyFrom(board);
+        repository.saveGameState(new SavedGame(saved, currentScore, history.toBytes(),
+                record != null ? record.toBytes() : null));
+    }
+
+    private void autosave() {
+        if (++movesSinceSave >= AUTOSAVE_MOVES)
+            saveGame();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelSearch();
+        search.shutdown();
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private boolean isClassic() {
+        return board.size() == GameBoard.PACKED_SIZE;
+    }
+
     public void newGame() {
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                boardArray[i][j] = null;
-            }
-        }
+        newGame(board.size());
+    }
+
+    /**
+     * Starts a game on a board of the given size, which later new games keep.
+     */
+    public void newGame(int size) {
+        stopAutoplay();
+        clearHint();
+        if (board != null && board.size() != size)
+            repository.saveBoardSize(size);
+        setBoardSize(size);
+        _canUndo.setValue(false);
+        movesSinceSave = 0;
+        clearTiles(boardArray);
         _score.setValue(0);
         _gameOver.setValue(false);
         repository.clearSavedState(); // Clear any saved state
-        addRandomTile();
-        addRandomTile();
+        record = new GameRecord(size, random.nextLong());
+        addRandomTile(GameRecord.spawnBits(record.seed, 0));
+        addRandomTile(GameRecord.spawnBits(record.seed, 1));
         _board.setValue(boardArray);
     }
 
     public void move(int direction) { // 0:left, 1:up, 2:right, 3:down
-        boolean moved = false;
-        moveScore = 0; // Reset score for the current move
-
-        int rotations = getRotationsForDirection(direction);
-        rotate(rotations);
-
-        for (int i = 0; i < SIZE; i++) {
-            Tile[] row = boardArray[i];
-            Tile[] newRow = processRow(row);
-            boardArray[i] = newRow;
-            if (!moved && !Arrays.equals(row, newRow)) {
-                moved = true;
-            }
-        }
+        // The player takes over from any hint or autoplay in progress
+        stopAutoplay();
+        clearHint();
+        applyMove(direction);
+    }
 
-        rotate((4 - rotations) % 4); // Rotate back
+    /**
+     * Goes back to the state before the last move.
+     */
+    public void undo() {
+        if (history.isEmpty())
+            return;
+        stopAutoplay();
+        clearHint();
+        history.restoreLast(movedBoard);
+        int previousScore = history.lastScore();
+        history.pop();
+        if (record != null && record.size() > 0)
+            record.removeLast();
+        _canUndo.setValue(!history.isEmpty());
+        _gameOver.setValue(false);
+        showBoard(movedBoard, previousScore);
+        autosave();
+    }
+
+    private static boolean replaysTo(GameRecord record, GameBoard board, int score) {
+        Replay replay = new Replay(record);
+        replay.seek(record.size());
+        return replay.isValid() && replay.getBoard().sameAs(board) && replay.getScore() == score;
+    }
 
-        if (moved) {
-            Integer currentScore = _score.getValue();
-            if (currentScore == null)
-                currentScore = 0;
-            _score.setValue(currentScore + moveScore);
-            addRandomTile();
-            checkGameOver();
+    /**
+     * Replaces the board with new tiles for another board of the same size, e.g. one
+     * restored from a save or the undo history.
+     */
+    private void showBoard(GameBoard shown, int newScore) {
+        board.copyFrom(shown);
+        int size = board.size();
+        clearTiles(movedArray);
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            int value = board.valueAt(cell);
+            if (value != 0)
+                movedArray[cell / size][cell % size] = new Tile(++lastTileId, value);
         }
+        swapTiles();
+        _score.setValue(newScore);
         _board.setValue(boardArray);
     }
 
-    private Tile[] processRow(Tile[] row) {
-        List<Tile> nonNull = new ArrayList<>();
-        for (Tile t : row) {
-            if (t != null) {
-                nonNull.add(t);
-            }
+    private static void clearTiles(Tile[][] tiles) {
+        for (Tile[] row : tiles) {
+            for (int col = 0; col < row.length; col++)
+                row[col] = null;
         }
+    }
 
-        List<Tile> merged = new ArrayList<>();
-        for (int i = 0; i < nonNull.size(); i++) {
-            if (i < nonNull.size() - 1 && nonNull.get(i).getValue() == nonNull.get(i + 1).getValue()) {
-                Tile t1 = nonNull.get(i);
-                Tile t2 = nonNull.get(i + 1);
-                int mergedValue = t1.getValue() * 2;
-                List<String> parents = new ArrayList<>();
-                parents.add(t1.getId());
-                parents.add(t2.getId());
-
-                merged.add(new Tile(mergedValue, parents));
-                moveScore += mergedValue; // Accumulate score for the move
-                i++; // Skip the next element
-            } else {
-                merged.add(nonNull.get(i));
-            }
-        }
+    private void swapTiles() {
+        Tile[][] tiles = boardArray;
+        boardArray = movedArray;
+        movedArray = tiles;
+    }
 
-        Tile[] newRow = new Tile[SIZE];
-        for (int i = 0; i < SIZE; i++) {
-            if (i < merged.size()) {
-                newRow[i] = merged.get(i);
-            } else {
-                newRow[i] = null;
-            }
+    /**
+     * Looks for the best move in the background and shows it as a hint.
+     */
+    public void requestHint() {
+        if (Boolean.TRUE.equals(_autoplay.getValue()) || !board.isPacked() || !board.canMove())
+            return;
+        _hintText.setValue("Hint: thinking...");
+        startSearch(HINT_MILLIS, result -> _hintText.setValue(
+                result.direction == ExpectimaxSearch.NO_MOVE ? "" : "Hint: swipe " + DIRECTION_HINTS[result.direction]));
+    }
+
+    public void toggleAutoplay() {
+        if (Boolean.TRUE.equals(_autoplay.getValue())) {
+            stopAutoplay();
+            return;
         }
-        return newRow;
+        if (!board.isPacked() || !board.canMove())
+            return;
+        clearHint();
+        _autoplay.setValue(true);
+        autoplayStep();
     }
 
-    private void rotate(int count) {
-        for (int i = 0; i < count; i++) {
-            Tile[][] rotated = new Tile[SIZE][SIZE];
-            for (int r = 0; r < SIZE; r++) {
-                for (int c = 0; c < SIZE; c++) {
-                    rotated[c][SIZE - 1 - r] = boardArray[r][c];
-                }
-            }
-            boardArray = rotated;
+    private void autoplayStep() {
+        startSearch(AUTOPLAY_MILLIS, result -> {
+            if (result.direction != ExpectimaxSearch.NO_MOVE)
+                applyMove(result.direction);
+            if (board.canMove())
+                autoplayStep();
+            else
+                stopAutoplay();
+        });
+    }
+
+    private void stopAutoplay() {
+        cancelSearch();
+        if (Boolean.TRUE.equals(_autoplay.getValue()))
+            _autoplay.setValue(false);
+    }
+
+    private void clearHint() {
+        cancelSearch();
+        if (!"".equals(_hintText.getValue()))
+            _hintText.setValue("");
+    }
+
+    /**
+     * Searches the current board, replacing any search in progress. The result is
+     * delivered on the main thread unless the search is cancelled first.
+     */
+    private void startSearch(long maxMillis, ExpectimaxSearch.Listener onResult) {
+        cancelSearch();
+        int request = searchRequest;
+        searchJob = search.searchAsync(board.packed(), maxMillis, result -> mainHandler.post(() -> {
+            if (request != searchRequest)
+                return;
+            searchJob = null;
+            onResult.onResult(result);
+        }));
+    }
+
+    private void cancelSearch() {
+        searchRequest++;
+        if (searchJob != null) {
+            searchJob.cancel();
+            searchJob = null;
         }
     }
 
-    private int getRotationsForDirection(int direction) {
-        switch (direction) {
-            case 0:
-                return 0; // Left
-            case 1:
-                return 3; // Up
-            case 2:
-                return 2; // Right
-            case 3:
-                return 1; // Down
-            default:
-                return 0;
+    private void applyMove(int direction) {
+        int points = board.moveInto(direction, movedBoard);
+        if (points == GameBoard.NO_MOVE)
+            return;
+
+        Integer currentScore = _score.getValue();
+        if (currentScore == null)
+            currentScore = 0;
+        history.push(board, currentScore);
+        if (history.size() == 1)
+            _canUndo.setValue(true);
+        _score.setValue(currentScore + points);
+        moveTiles(direction);
+        GameBoard moved = movedBoard;
+        movedBoard = board;
+        board = moved;
+        swapTiles();
+        if (record != null) {
+            record.add(direction);
+            addRandomTile(record.nextSpawnBits());
+        } else {
+            addRandomTile(random.nextLong());
         }
+        checkGameOver();
+        _board.setValue(boardArray);
+        autosave();
     }
 
-    private void addRandomTile() {
-        List<int[]> emptyTiles = new ArrayList<>();
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (boardArray[i][j] == null) {
-                    emptyTiles.add(new int[] { i, j });
-                }
+    /**
+     * Carries the tiles over to movedArray for the board after a move (movedBoard), so
+     * each keeps its identity while it slides. Tiles that merge are replaced by a new one
+     * naming both.
+     */
+    private void moveTiles(int direction) {
+        int size = board.size();
+        clearTiles(movedArray);
+        for (int line = 0; line < size; line++) {
+            int destinations = board.lineDestinations(direction, line);
+            for (int i = 0; i < size; i++) {
+                int from = board.lineCell(direction, line, i);
+                Tile tile = boardArray[from / size][from % size];
+                if (tile == null)
+                    continue;
+                int to = board.lineCell(direction, line, (destinations >>> (4 * i)) & 0xF);
+                Tile there = movedArray[to / size][to % size];
+                movedArray[to / size][to % size] = there == null ? tile
+                        : new Tile(++lastTileId, movedBoard.valueAt(to), there.getId(), tile.getId());
             }
         }
-        if (!emptyTiles.isEmpty()) {
-            int[] pos = emptyTiles.get(random.nextInt(emptyTiles.size()));
-            boardArray[pos[0]][pos[1]] = new Tile(random.nextDouble() < 0.9 ? 2 : 4);
-        }
+    }
+
+    private void addRandomTile(long randomBits) {
+        int cell = board.spawn(randomBits);
+        if (cell < 0)
+            return;
+        int size = board.size();
+        boardArray[cell / size][cell % size] = new Tile(++lastTileId, board.valueAt(cell));
     }
 
     private void checkGameOver() {
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (boardArray[i][j] == null) {
-                    _gameOver.postValue(false);
-                    return;
-                }
-                if (i < SIZE - 1 && boardArray[i + 1][j] != null
-                        && boardArray[i][j].getValue() == boardArray[i + 1][j].getValue()) {
-                    _gameOver.postValue(false);
-                    return;
-                }
-                if (j < SIZE - 1 && boardArray[i][j + 1] != null
-                        && boardArray[i][j].getValue() == boardArray[i][j + 1].getValue()) {
-                    _gameOver.postValue(false);
-                    return;
-                }
-            }
+        if (board.canMove()) {
+            _gameOver.postValue(false);
+            return;
         }
         Integer currentScore = _score.getValue();
-        if (currentScore != null) {
+        if (currentScore != null && isClassic()) {
             repository.saveHighScore(currentScore);
             if (currentScore > _highScore.getValue()) {
                 _highScore.postValue(currentScore);
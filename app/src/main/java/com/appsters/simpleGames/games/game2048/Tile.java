@@ -1,28 +1,31 @@
 package com.appsters.simpleGames.games.game2048;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
-
+/**
+ * A tile on screen. Ids are handed out by the game in increasing order, so each tile (and
+ * the view showing it) can be followed from move to move.
+ */
 public class Tile {
-    private final String id;
+    // Parent id of a tile that wasn't made by a merge
+    public static final int NO_PARENT = 0;
+
+    private final int id;
     private final int value;
-    private final List<String> mergedFromIds;
+    // The two tiles this one was merged from, or NO_PARENT
+    private final int parentA;
+    private final int parentB;
 
-    public Tile(int value) {
-        this.id = UUID.randomUUID().toString();
-        this.value = value;
-        this.mergedFromIds = new ArrayList<>();
+    public Tile(int id, int value) {
+        this(id, value, NO_PARENT, NO_PARENT);
     }
 
-    public Tile(int value, List<String> mergedFromIds) {
-        this.id = UUID.randomUUID().toString();
+    public Tile(int id, int value, int parentA, int parentB) {
+        this.id = id;
         this.value = value;
-        this.mergedFromIds = mergedFromIds != null ? new ArrayList<>(mergedFromIds) : new ArrayList<>();
+        this.parentA = parentA;
+        this.parentB = parentB;
     }
 
-    public String getId() {
+    public int getId() {
         return id;
     }
 
@@ -30,8 +33,16 @@ public class Tile {
         return value;
     }
 
-    public List<String> getMergedFromIds() {
-        return mergedFromIds;
+    public boolean isMerged() {
+        return parentA != NO_PARENT;
+    }
+
+    public int getParentA() {
+        return parentA;
+    }
+
+    public int getParentB() {
+        return parentB;
     }
 
     @Override
@@ -41,11 +52,11 @@ public class Tile {
         if (o == null || getClass() != o.getClass())
             return false;
         Tile tile = (Tile) o;
-        return value == tile.value && Objects.equals(id, tile.id);
+        return value == tile.value && id == tile.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, value);
+        return 31 * id + value;
     }
 }
@@ -0,0 +1,242 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+/**
+ * 2048 rules on a 4x4 board packed into a long. No Android dependencies, and nothing
+ * here allocates.
+ *
+ * Each cell is a 4-bit exponent (0 = empty, 1 = 2, 2 = 4, ... 15 = 32768). Cell
+ * (row, col) is the nibble at bit (row * 4 + col) * 4, so each row is one 16-bit
+ * chunk with its leftmost cell in the low nibble.
+ *
+ * A move looks every row up in a 65,536-entry table (one per direction); up and down
+ * transpose the board and move its rows. Merge scores come from a table too. Two
+ * 32768 tiles don't merge, since the result doesn't fit in a cell.
+ */
+public final class BitBoard {
+
+    public static final int SIZE = 4;
+    public static final int CELLS = SIZE * SIZE;
+
+    // Move directions, as used by the screen's swipes
+    public static final int LEFT = 0;
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+
+    public static final int MAX_EXPONENT = 15;
+    private static final int ROWS = 1 << 16;
+
+    // A row moved left or right
+    private static final char[] ROW_LEFT = new char[ROWS];
+    private static final char[] ROW_RIGHT = new char[ROWS];
+    // Points scored by the merges of one row. Equal runs merge the same number of
+    // times whichever way they slide, so this serves both directions.
+    private static final int[] ROW_SCORE = new int[ROWS];
+    // Where each cell of a row ends up after moving left: 2 bits per source cell
+    private static final byte[] ROW_LEFT_DESTINATIONS = new byte[ROWS];
+
+    static {
+        int[] cells = new int[SIZE];
+        for (int row = 0; row < ROWS; row++) {
+            int packed = 0;
+            int score = 0;
+            int destinations = 0;
+            int target = -1; // last filled destination
+            boolean targetMerged = false;
+            for (int i = 0; i < SIZE; i++)
+                cells[i] = (row >>> (4 * i)) & 0xF;
+            for (int i = 0; i < SIZE; i++) {
+                int exponent = cells[i];
+                if (exponent == 0)
+                    continue;
+                int previous = target >= 0 ? (packed >>> (4 * target)) & 0xF : 0;
+                if (!targetMerged && previous == exponent && exponent < MAX_EXPONENT) {
+                    packed += 1 << (4 * target); // bumps the exponent
+                    score += 1 << (exponent + 1);
+                    targetMerged = true;
+                } else {
+                    target++;
+                    packed |= exponent << (4 * target);
+                    targetMerged = false;
+                }
+                destinations |= target << (2 * i);
+            }
+            ROW_LEFT[row] = (char) packed;
+            ROW_SCORE[row] = score;
+            ROW_LEFT_DESTINATIONS[row] = (byte) destinations;
+        }
+        for (int row = 0; row < ROWS; row++)
+            ROW_RIGHT[row] = (char) reverseRow(ROW_LEFT[reverseRow(row)]);
+    }
+
+    private BitBoard() {
+    }
+
+    private static int reverseRow(int row) {
+        return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | (row >>> 12);
+    }
+
+    /**
+     * Swaps rows and columns.
+     */
+    public static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    private static long moveRows(long board, char[] table) {
+        return table[(int) board & 0xFFFF]
+                | (long) table[(int) (board >>> 16) & 0xFFFF] << 16
+                | (long) table[(int) (board >>> 32) & 0xFFFF] << 32
+                | (long) table[(int) (board >>> 48) & 0xFFFF] << 48;
+    }
+
+    private static int scoreRows(long board) {
+        return ROW_SCORE[(int) board & 0xFFFF] + ROW_SCORE[(int) (board >>> 16) & 0xFFFF]
+                + ROW_SCORE[(int) (board >>> 32) & 0xFFFF] + ROW_SCORE[(int) (board >>> 48) & 0xFFFF];
+    }
+
+    /**
+     * The board after sliding every tile in a direction; the same board if nothing moves.
+     */
+    public static long move(long board, int direction) {
+        switch (direction) {
+            case LEFT:
+                return moveRows(board, ROW_LEFT);
+            case RIGHT:
+                return moveRows(board, ROW_RIGHT);
+            case UP:
+                return transpose(moveRows(transpose(board), ROW_LEFT));
+            case DOWN:
+                return transpose(moveRows(transpose(board), ROW_RIGHT));
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Points a move scores: the value of every tile it makes by merging.
+     */
+    public static int scoreOf(long board, int direction) {
+        return direction == UP || direction == DOWN ? scoreRows(transpose(board)) : scoreRows(board);
+    }
+
+    public static boolean canMove(long board) {
+        return move(board, LEFT) != board || move(board, RIGHT) != board
+                || move(board, UP) != board || move(board, DOWN) != board;
+    }
+
+    /**
+     * Exponent of a cell (row * SIZE + col); 0 if empty.
+     */
+    public static int exponentAt(long board, int cell) {
+        return (int) (board >>> (4 * cell)) & 0xF;
+    }
+
+    /**
+     * Tile value of a cell, e.g. 8; 0 if empty.
+     */
+    public static int valueAt(long board, int cell) {
+        int exponent = exponentAt(board, cell);
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    public static long withExponent(long board, int cell, int exponent) {
+        int shift = 4 * cell;
+        return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    /**
+     * Exponent for a tile value (a power of two from 2 to 32768), 0 for an empty cell.
+     */
+    public static int exponentOf(int value) {
+        if (value == 0)
+            return 0;
+        int exponent = Integer.numberOfTrailingZeros(value);
+        if (value != 1 << exponent || exponent < 1 || exponent > MAX_EXPONENT)
+            throw new IllegalArgumentException("Not a tile value: " + value);
+        return exponent;
+    }
+
+    public static int emptyCount(long board) {
+        int empty = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (((board >>> (4 * cell)) & 0xF) == 0)
+                empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Cell a new tile spawns in: one of the empty cells, in row-major order, picked
+     * uniformly by the high bits of {@code randomBits}; -1 if the board is full.
+     *
+     * Spawns are a pure function of the board and the random bits, so a game can be
+     * replayed from the bits it used (see {@link GameRecord#spawnBits}).
+     */
+    public static int spawnCell(long board, long randomBits) {
+        int empty = emptyCount(board);
+        if (empty == 0)
+            return -1;
+        int pick = (int) (((randomBits >>> 32) * empty) >>> 32);
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (((board >>> (4 * cell)) & 0xF) == 0 && pick-- == 0)
+                return cell;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Exponent of a newly spawned tile: a 2 nine times in ten, otherwise a 4, decided by
+     * the low bits of {@code randomBits}.
+     */
+    public static int spawnExponent(long randomBits) {
+        return (randomBits & 0xFFFF) < 0x10000 / 10 ? 2 : 1;
+    }
+
+    /**
+     * Adds a new tile to an empty cell; the same board if it is full.
+     */
+    public static long spawn(long board, long randomBits) {
+        int cell = spawnCell(board, randomBits);
+        return cell < 0 ? board : withExponent(board, cell, spawnExponent(randomBits));
+    }
+
+    /**
+     * Cell index (row * SIZE + col) of the i-th cell of a line as seen by a move: i = 0 is
+     * the edge the tiles slide towards. Lines are rows for left/right and columns for
+     * up/down.
+     */
+    public static int lineCell(int direction, int line, int i) {
+        switch (direction) {
+            case LEFT:
+                return line * SIZE + i;
+            case RIGHT:
+                return line * SIZE + (SIZE - 1 - i);
+            case UP:
+                return i * SIZE + line;
+            case DOWN:
+                return (SIZE - 1 - i) * SIZE + line;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Where each tile of a line goes in a move, for mapping tiles onto the new board: 2
+     * bits per line position i (see {@link #lineCell}), giving the position it slides to.
+     * Tiles sent to the same position merge. Bits for empty cells are 0.
+     */
+    public static int lineDestinations(long board, int direction, int line) {
+        int row = 0;
+        for (int i = 0; i < SIZE; i++)
+            row |= exponentAt(board, lineCell(direction, line, i)) << (4 * i);
+        return ROW_LEFT_DESTINATIONS[row] & 0xFF;
+    }
+}
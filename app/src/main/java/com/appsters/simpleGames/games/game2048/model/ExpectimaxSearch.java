@@ -0,0 +1,324 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Picks a move for a {@link BitBoard} with an expectimax search: the player's moves are
+ * max nodes, tile spawns are chance nodes (a 2 nine times in ten, otherwise a 4, in any
+ * empty cell), and leaves are scored by a heuristic that rewards empty cells, available
+ * merges and rows/columns that rise or fall steadily.
+ *
+ * The search deepens one move at a time until its time budget is spent, searching the
+ * four root moves in parallel on a fork/join pool, and answers with the best move of the
+ * deepest pass that finished. Chance nodes are cached in a transposition table keyed by
+ * the board, one per worker thread, kept from search to search. Unlikely spawn sequences
+ * are cut off early and scored by the heuristic.
+ */
+public class ExpectimaxSearch {
+
+    // Deepest pass tried, in moves
+    private static final int MAX_DEPTH = 10;
+    // Spawn sequences less likely than this are scored without searching further
+    private static final float PROBABILITY_CUTOFF = 0.0001f;
+    // Max nodes visited between checks of the deadline and cancellation
+    private static final int CHECK_INTERVAL = 4096;
+
+    // Heuristic weights, per row (and column)
+    private static final float LOST_PENALTY = 200_000f;
+    private static final float MONOTONICITY_POWER = 4f;
+    private static final float MONOTONICITY_WEIGHT = 47f;
+    private static final float SUM_POWER = 3.5f;
+    private static final float SUM_WEIGHT = 11f;
+    private static final float MERGES_WEIGHT = 700f;
+    private static final float EMPTY_WEIGHT = 270f;
+
+    // Heuristic score of each possible row
+    private static final float[] ROW_HEURISTIC = new float[1 << 16];
+
+    static {
+        int[] cells = new int[BitBoard.SIZE];
+        for (int row = 0; row < ROW_HEURISTIC.length; row++) {
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = (row >>> (4 * i)) & 0xF;
+
+            float sum = 0;
+            int empty = 0;
+            int merges = 0;
+            int previous = 0;
+            int counter = 0;
+            for (int exponent : cells) {
+                sum += (float) Math.pow(exponent, SUM_POWER);
+                if (exponent == 0) {
+                    empty++;
+                    continue;
+                }
+                if (previous == exponent) {
+                    counter++;
+                } else if (counter > 0) {
+                    merges += 1 + counter;
+                    counter = 0;
+                }
+                previous = exponent;
+            }
+            if (counter > 0)
+                merges += 1 + counter;
+
+            float monotonicLeft = 0;
+            float monotonicRight = 0;
+            for (int i = 1; i < cells.length; i++) {
+                float a = (float) Math.pow(cells[i - 1], MONOTONICITY_POWER);
+                float b = (float) Math.pow(cells[i], MONOTONICITY_POWER);
+                if (cells[i - 1] > cells[i])
+                    monotonicLeft += a - b;
+                else
+                    monotonicRight += b - a;
+            }
+
+            ROW_HEURISTIC[row] = LOST_PENALTY + EMPTY_WEIGHT * empty + MERGES_WEIGHT * merges
+                    - MONOTONICITY_WEIGHT * Math.min(monotonicLeft, monotonicRight) - SUM_WEIGHT * sum;
+        }
+    }
+
+    /**
+     * The move to play, or {@link #NO_MOVE} if none changes the board.
+     */
+    public static class Result {
+        public final int direction;
+        // Moves looked ahead by the pass that chose it
+        public final int depth;
+        public final float score;
+
+        public Result(int direction, int depth, float score) {
+            this.direction = direction;
+            this.depth = depth;
+            this.score = score;
+        }
+    }
+
+    public static final int NO_MOVE = -1;
+
+    public interface Listener {
+        void onResult(Result result);
+    }
+
+    /**
+     * Handle to a running search. A cancelled search stops within a few thousand nodes
+     * and never reports.
+     */
+    public static class Job {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    /**
+     * Chance-node values by board, direct-mapped; a new entry replaces whatever was in
+     * its slot. Confined to one thread.
+     */
+    private static final class TranspositionTable {
+        private static final int BITS = 15;
+
+        final long[] boards = new long[1 << BITS];
+        final float[] values = new float[1 << BITS];
+        // Remaining depth the value was searched to; 0 marks an empty slot
+        final byte[] depths = new byte[1 << BITS];
+
+        static int slot(long board) {
+            return (int) ((board * 0x9E3779B97F4A7C15L) >>> (64 - BITS));
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<TranspositionTable> tables = new ThreadLocal<TranspositionTable>() {
+        @Override
+        protected TranspositionTable initialValue() {
+            return new TranspositionTable();
+        }
+    };
+
+    public ExpectimaxSearch() {
+        // Leave one core for the UI thread.
+        pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Starts a search in the background. The listener is called once, from a worker
+     * thread, unless the job is cancelled first.
+     */
+    public Job searchAsync(long board, long maxMillis, Listener listener) {
+        Job job = new Job();
+        pool.execute(() -> {
+            Result result = run(board, maxMillis, job.cancelled);
+            if (!job.isCancelled())
+                listener.onResult(result);
+        });
+        return job;
+    }
+
+    /**
+     * Runs a search on the calling thread (the root moves still use the pool).
+     */
+    public Result search(long board, long maxMillis) {
+        return run(board, maxMillis, new AtomicBoolean(false));
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Heuristic score of a board: its rows plus its columns.
+     */
+    public static float heuristic(long board) {
+        return rowsHeuristic(board) + rowsHeuristic(BitBoard.transpose(board));
+    }
+
+    private static float rowsHeuristic(long board) {
+        return ROW_HEURISTIC[(int) board & 0xFFFF] + ROW_HEURISTIC[(int) (board >>> 16) & 0xFFFF]
+                + ROW_HEURISTIC[(int) (board >>> 32) & 0xFFFF] + ROW_HEURISTIC[(int) (board >>> 48) & 0xFFFF];
+    }
+
+    private Result run(long board, long maxMillis, AtomicBoolean cancelled) {
+        long deadline = System.nanoTime() + maxMillis * 1_000_000L;
+
+        // One move ahead is a handful of evaluations; it is always finished, so there is an
+        // answer even if the budget runs out at once.
+        List<RootTask> roots = new ArrayList<>(4);
+        Result best = new Result(NO_MOVE, 0, 0);
+        for (int direction = 0; direction < 4; direction++) {
+            long next = BitBoard.move(board, direction);
+            if (next == board)
+                continue;
+            roots.add(new RootTask(next, direction, deadline, cancelled));
+            float score = heuristic(next);
+            if (best.direction == NO_MOVE || score > best.score)
+                best = new Result(direction, 1, score);
+        }
+        if (roots.size() <= 1)
+            return best;
+
+        for (int depth = 2; depth <= MAX_DEPTH; depth++) {
+            for (RootTask root : roots)
+                root.prepare(depth);
+            RecursiveAction pass = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(roots);
+                }
+            };
+            if (ForkJoinTask.inForkJoinPool())
+                pass.invoke();
+            else
+                pool.invoke(pass);
+
+            Result deeper = null;
+            for (RootTask root : roots) {
+                if (root.aborted)
+                    return best; // an unfinished pass can't be compared
+                if (deeper == null || root.value > deeper.score)
+                    deeper = new Result(root.direction, depth, root.value);
+            }
+            best = deeper;
+            if (System.nanoTime() >= deadline)
+                break;
+        }
+        return best;
+    }
+
+    /**
+     * Value of one root move at the current pass's depth.
+     */
+    private final class RootTask extends RecursiveAction {
+        final long board;
+        final int direction;
+        final long deadline;
+        final AtomicBoolean cancelled;
+
+        int depth;
+        float value;
+        boolean aborted;
+        private int untilCheck;
+        private TranspositionTable table;
+
+        RootTask(long board, int direction, long deadline, AtomicBoolean cancelled) {
+            this.board = board;
+            this.direction = direction;
+            this.deadline = deadline;
+            this.cancelled = cancelled;
+        }
+
+        void prepare(int depth) {
+            reinitialize();
+            this.depth = depth;
+            aborted = false;
+            untilCheck = CHECK_INTERVAL;
+        }
+
+        @Override
+        protected void compute() {
+            table = tables.get();
+            value = chance(board, depth - 1, 1f);
+        }
+
+        /**
+         * Expected value over every spawn on the board, followed by the best move.
+         */
+        private float chance(long board, int depth, float probability) {
+            if (depth == 0 || probability < PROBABILITY_CUTOFF)
+                return heuristic(board);
+
+            int slot = TranspositionTable.slot(board);
+            if (table.boards[slot] == board && table.depths[slot] >= depth)
+                return table.values[slot];
+
+            int empty = BitBoard.emptyCount(board);
+            float cellProbability = probability / empty;
+            float sum = 0;
+            for (int cell = 0; cell < BitBoard.CELLS && !aborted; cell++) {
+                if (BitBoard.exponentAt(board, cell) != 0)
+                    continue;
+                sum += 0.9f * max(BitBoard.withExponent(board, cell, 1), depth, cellProbability * 0.9f);
+                sum += 0.1f * max(BitBoard.withExponent(board, cell, 2), depth, cellProbability * 0.1f);
+            }
+            if (aborted)
+                return 0;
+            float value = sum / empty;
+
+            table.boards[slot] = board;
+            table.values[slot] = value;
+            table.depths[slot] = (byte) depth;
+            return value;
+        }
+
+        /**
+         * Value of the best move on the board; 0 if the game is lost.
+         */
+        private float max(long board, int depth, float probability) {
+            if (--untilCheck <= 0) {
+                untilCheck = CHECK_INTERVAL;
+                if (cancelled.get() || System.nanoTime() >= deadline)
+                    aborted = true;
+            }
+            if (aborted)
+                return 0;
+            float best = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                long next = BitBoard.move(board, direction);
+                if (next != board)
+                    best = Math.max(best, chance(next, depth - 1, probability));
+            }
+            return best;
+        }
+    }
+}
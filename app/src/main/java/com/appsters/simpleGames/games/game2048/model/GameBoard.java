@@ -0,0 +1,315 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import java.util.Arrays;
+
+/**
+ * A square 2048 board of any size from {@link #MIN_SIZE} to {@link #MAX_SIZE}. Mutable, and
+ * nothing here allocates once the board exists, so a game can keep two boards and move
+ * from one into the other.
+ *
+ * A 4x4 board is a packed {@link BitBoard} and moves by table lookups. Larger boards are a
+ * flat array with one exponent per cell (row * size + col, 0 = empty) and move line by
+ * line. Cell exponents go up to {@link #MAX_EXPONENT} (a 2^30 tile) on large boards, and
+ * to BitBoard's 15 on a 4x4 one.
+ */
+public final class GameBoard {
+
+    public static final int MIN_SIZE = 4;
+    public static final int MAX_SIZE = 8;
+    // The size kept packed in a long
+    public static final int PACKED_SIZE = BitBoard.SIZE;
+    public static final int MAX_EXPONENT = 30;
+
+    // Returned by moveInto when nothing moves
+    public static final int NO_MOVE = -1;
+
+    private final int size;
+    private long packed;
+    // Null on a packed board
+    private final byte[] cells;
+
+    public GameBoard(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE)
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        this.size = size;
+        this.cells = size == PACKED_SIZE ? null : new byte[size * size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int cellCount() {
+        return size * size;
+    }
+
+    public boolean isPacked() {
+        return cells == null;
+    }
+
+    /**
+     * The board as a {@link BitBoard}. Only for a packed board.
+     */
+    public long packed() {
+        checkPacked();
+        return packed;
+    }
+
+    public void setPacked(long board) {
+        checkPacked();
+        packed = board;
+    }
+
+    private void checkPacked() {
+        if (cells != null)
+            throw new IllegalStateException(size + "x" + size + " boards aren't packed");
+    }
+
+    public void clear() {
+        packed = 0L;
+        if (cells != null)
+            Arrays.fill(cells, (byte) 0);
+    }
+
+    /**
+     * Makes this board a copy of another of the same size.
+     */
+    public void copyFrom(GameBoard other) {
+        checkSameSize(other);
+        packed = other.packed;
+        if (cells != null)
+            System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    /**
+     * Copies the cells of a board that isn't packed to {@code to}, one exponent a byte.
+     */
+    void writeCells(byte[] to, int offset) {
+        System.arraycopy(cells, 0, to, offset, cells.length);
+    }
+
+    /**
+     * Sets the cells of a board that isn't packed from exponents written by
+     * {@link #writeCells}.
+     *
+     * @throws IllegalArgumentException if an exponent is out of range
+     */
+    void readCells(byte[] from, int offset) {
+        for (int cell = 0; cell < cells.length; cell++)
+            setExponent(cell, from[offset + cell]);
+    }
+
+    public boolean sameAs(GameBoard other) {
+        return size == other.size && packed == other.packed
+                && (cells == null || Arrays.equals(cells, other.cells));
+    }
+
+    private void checkSameSize(GameBoard other) {
+        if (other.size != size)
+            throw new IllegalArgumentException("Board sizes differ: " + size + " and " + other.size);
+    }
+
+    /**
+     * Exponent of a cell (row * size + col); 0 if empty.
+     */
+    public int exponentAt(int cell) {
+        return cells == null ? BitBoard.exponentAt(packed, cell) : cells[cell];
+    }
+
+    /**
+     * Tile value of a cell, e.g. 8; 0 if empty.
+     */
+    public int valueAt(int cell) {
+        int exponent = exponentAt(cell);
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    public void setExponent(int cell, int exponent) {
+        if (exponent < 0 || exponent > maxExponent())
+            throw new IllegalArgumentException("Exponent out of range: " + exponent);
+        if (cells == null)
+            packed = BitBoard.withExponent(packed, cell, exponent);
+        else
+            cells[cell] = (byte) exponent;
+    }
+
+    private int maxExponent() {
+        return cells == null ? BitBoard.MAX_EXPONENT : MAX_EXPONENT;
+    }
+
+    public int emptyCount() {
+        if (cells == null)
+            return BitBoard.emptyCount(packed);
+        int empty = 0;
+        for (byte cell : cells) {
+            if (cell == 0)
+                empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Writes the board after sliding every tile in a direction into {@code into}, which
+     * must be a different board of the same size.
+     *
+     * @return the points the move scores, or {@link #NO_MOVE} if nothing moves (into is
+     *         left as a copy of this board)
+     */
+    public int moveInto(int direction, GameBoard into) {
+        checkSameSize(into);
+        if (cells == null) {
+            long next = BitBoard.move(packed, direction);
+            into.packed = next;
+            return next == packed ? NO_MOVE : BitBoard.scoreOf(packed, direction);
+        }
+
+        int score = 0;
+        boolean moved = false;
+        byte[] out = into.cells;
+        for (int line = 0; line < size; line++) {
+            int start = lineStart(direction, line);
+            int step = lineStep(direction);
+            int target = -1; // last filled position
+            boolean targetMerged = false;
+            for (int i = 0, cell = start; i < size; i++, cell += step) {
+                int exponent = cells[cell];
+                if (exponent == 0)
+                    continue;
+                if (!targetMerged && target >= 0 && out[start + target * step] == exponent
+                        && exponent < MAX_EXPONENT) {
+                    out[start + target * step]++;
+                    score += 1 << (exponent + 1);
+                    targetMerged = true;
+                    moved = true;
+                } else {
+                    target++;
+                    out[start + target * step] = (byte) exponent;
+                    targetMerged = false;
+                    moved |= target != i;
+                }
+            }
+            for (int i = target + 1; i < size; i++)
+                out[start + i * step] = 0;
+        }
+        return moved ? score : NO_MOVE;
+    }
+
+    public boolean canMove() {
+        if (cells == null)
+            return BitBoard.canMove(packed);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int exponent = cells[row * size + col];
+                if (exponent == 0)
+                    return true;
+                if (exponent < MAX_EXPONENT
+                        && ((col + 1 < size && cells[row * size + col + 1] == exponent)
+                                || (row + 1 < size && cells[(row + 1) * size + col] == exponent)))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a new tile to an empty cell, placed and valued by {@code randomBits} the same
+     * way as {@link BitBoard#spawnCell} and {@link BitBoard#spawnExponent}.
+     *
+     * @return the cell it went in, or -1 if the board is full
+     */
+    public int spawn(long randomBits) {
+        if (cells == null) {
+            int cell = BitBoard.spawnCell(packed, randomBits);
+            if (cell >= 0)
+                packed = BitBoard.withExponent(packed, cell, BitBoard.spawnExponent(randomBits));
+            return cell;
+        }
+        int empty = emptyCount();
+        if (empty == 0)
+            return -1;
+        int pick = (int) (((randomBits >>> 32) * empty) >>> 32);
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == 0 && pick-- == 0) {
+                cells[cell] = (byte) BitBoard.spawnExponent(randomBits);
+                return cell;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Cell index (row * size + col) of the i-th cell of a line as seen by a move: i = 0 is
+     * the edge the tiles slide towards. Lines are rows for left/right and columns for
+     * up/down.
+     */
+    public int lineCell(int direction, int line, int i) {
+        return lineStart(direction, line) + i * lineStep(direction);
+    }
+
+    private int lineStart(int direction, int line) {
+        switch (direction) {
+            case BitBoard.LEFT:
+                return line * size;
+            case BitBoard.RIGHT:
+                return line * size + size - 1;
+            case BitBoard.UP:
+                return line;
+            case BitBoard.DOWN:
+                return (size - 1) * size + line;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    private int lineStep(int direction) {
+        switch (direction) {
+            case BitBoard.LEFT:
+                return 1;
+            case BitBoard.RIGHT:
+                return -1;
+            case BitBoard.UP:
+                return size;
+            case BitBoard.DOWN:
+                return -size;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Where each tile of a line goes in a move, for mapping tiles onto the new board: 4
+     * bits per line position i (see {@link #lineCell}), giving the position it slides to.
+     * Tiles sent to the same position merge. Bits for empty cells are 0.
+     */
+    public int lineDestinations(int direction, int line) {
+        if (cells == null) {
+            int twoBit = BitBoard.lineDestinations(packed, direction, line);
+            int destinations = 0;
+            for (int i = 0; i < PACKED_SIZE; i++)
+                destinations |= ((twoBit >>> (2 * i)) & 3) << (4 * i);
+            return destinations;
+        }
+
+        int start = lineStart(direction, line);
+        int step = lineStep(direction);
+        int destinations = 0;
+        int target = -1;
+        int targetExponent = 0;
+        boolean targetMerged = false;
+        for (int i = 0, cell = start; i < size; i++, cell += step) {
+            int exponent = cells[cell];
+            if (exponent == 0)
+                continue;
+            if (!targetMerged && target >= 0 && targetExponent == exponent && exponent < MAX_EXPONENT) {
+                targetExponent++;
+                targetMerged = true;
+            } else {
+                target++;
+                targetExponent = exponent;
+                targetMerged = false;
+            }
+            destinations |= target << (4 * i);
+        }
+        return destinations;
+    }
+}
@@ -0,0 +1,118 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Everything needed to reproduce a game: its board size, its seed and the direction of
+ * every move, 2 bits a move. Every tile the game spawns comes from {@link #spawnBits}, so the seed fixes
+ * them all and {@link Replay} can play the game again.
+ *
+ * Spawn n is the n-th tile of the game: 0 and 1 are the opening tiles, then 2 + i follows
+ * move i. An undone move takes its spawn number with it, so replaying the same move
+ * again brings back the same tile.
+ */
+public class GameRecord {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MOVES_PER_WORD = 32;
+
+    public final int boardSize;
+    public final long seed;
+    private long[] words = new long[4];
+    private int moveCount = 0;
+
+    public GameRecord(int boardSize, long seed) {
+        this.boardSize = boardSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Random bits for spawn number {@code n} of a game (splitmix64 of the seed and n).
+     */
+    public static long spawnBits(long seed, int n) {
+        long z = seed + (n + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Random bits for the tile that follows the most recently added move.
+     */
+    public long nextSpawnBits() {
+        return spawnBits(seed, moveCount + 1);
+    }
+
+    public void add(int direction) {
+        int word = moveCount / MOVES_PER_WORD;
+        if (word == words.length)
+            words = Arrays.copyOf(words, words.length * 2);
+        int shift = 2 * (moveCount % MOVES_PER_WORD);
+        words[word] = (words[word] & ~(3L << shift)) | ((long) direction << shift);
+        moveCount++;
+    }
+
+    /**
+     * Forgets the most recent move, e.g. when it is undone.
+     */
+    public void removeLast() {
+        if (moveCount == 0)
+            throw new IllegalStateException("No moves recorded");
+        moveCount--;
+    }
+
+    public int size() {
+        return moveCount;
+    }
+
+    public int moveAt(int i) {
+        if (i < 0 || i >= moveCount)
+            throw new IndexOutOfBoundsException("Move " + i + " of " + moveCount);
+        return (int) (words[i / MOVES_PER_WORD] >>> (2 * (i % MOVES_PER_WORD))) & 3;
+    }
+
+    public byte[] toBytes() {
+        int wordCount = (moveCount + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(20 + 8 * wordCount);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(boardSize);
+            out.writeLong(seed);
+            out.writeInt(moveCount);
+            for (int i = 0; i < wordCount; i++)
+                out.writeLong(words[i]);
+        } catch (IOException e) {
+            throw new AssertionError(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the bytes aren't a record packed by {@link #toBytes()}
+     */
+    public static GameRecord fromBytes(byte[] packed) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(packed))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+                throw new IOException("Unknown game record version " + version);
+            int boardSize = in.readInt();
+            if (boardSize < GameBoard.MIN_SIZE || boardSize > GameBoard.MAX_SIZE)
+                throw new IOException("Game record has a bad board size: " + boardSize);
+            GameRecord record = new GameRecord(boardSize, in.readLong());
+            int count = in.readInt();
+            int wordCount = (count + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+            if (count < 0 || packed.length != 20 + 8L * wordCount)
+                throw new IOException("Game record length doesn't match its " + count + " moves");
+            record.words = new long[Math.max(4, wordCount)];
+            for (int i = 0; i < wordCount; i++)
+                record.words[i] = in.readLong();
+            record.moveCount = count;
+            return record;
+        }
+    }
+}
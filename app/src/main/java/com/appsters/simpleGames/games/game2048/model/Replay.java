@@ -0,0 +1,105 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+/**
+ * Plays a {@link GameRecord} again on a {@link GameBoard}, to any point: for watching a
+ * game back, seeking through it, or checking that a claimed score is what its moves
+ * produce. Each step is one move and a spawn on a pair of boards made up front, so a
+ * whole game replays in well under a millisecond.
+ */
+public class Replay {
+
+    private final GameRecord record;
+    private GameBoard board;
+    // The board moved into, swapped with board after every step
+    private GameBoard scratch;
+    private int score;
+    // Moves played so far
+    private int position;
+    // Set once a recorded move turns out not to change the board
+    private boolean valid;
+
+    public Replay(GameRecord record) {
+        this.record = record;
+        board = new GameBoard(record.boardSize);
+        scratch = new GameBoard(record.boardSize);
+        rewind();
+    }
+
+    /**
+     * Sets a board to the opening of a game with the given seed.
+     */
+    public static void deal(long seed, GameBoard into) {
+        into.clear();
+        into.spawn(GameRecord.spawnBits(seed, 0));
+        into.spawn(GameRecord.spawnBits(seed, 1));
+    }
+
+    public void rewind() {
+        deal(record.seed, board);
+        score = 0;
+        position = 0;
+        valid = true;
+    }
+
+    /**
+     * Moves to the state after the first {@code moves} moves. Seeking forward continues
+     * from the current position; seeking back replays from the start.
+     */
+    public void seek(int moves) {
+        if (moves < 0 || moves > record.size())
+            throw new IndexOutOfBoundsException("Move " + moves + " of " + record.size());
+        if (moves < position)
+            rewind();
+        while (position < moves)
+            step();
+    }
+
+    /**
+     * Plays the next recorded move.
+     */
+    public void step() {
+        int points = board.moveInto(record.moveAt(position), scratch);
+        if (points == GameBoard.NO_MOVE)
+            valid = false;
+        else
+            score += points;
+        GameBoard moved = scratch;
+        scratch = board;
+        board = moved;
+        position++;
+        board.spawn(GameRecord.spawnBits(record.seed, position + 1));
+    }
+
+    /**
+     * The board at the current position. It changes as the replay moves on.
+     */
+    public GameBoard getBoard() {
+        return board;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Whether every move played so far changed the board, as real moves always do. A
+     * record that fails this wasn't produced by the game.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Replays a whole record and checks it scores what is claimed, e.g. before trusting a
+     * leaderboard entry.
+     */
+    public static boolean verifies(GameRecord record, int claimedScore) {
+        Replay replay = new Replay(record);
+        replay.seek(record.size());
+        return replay.isValid() && replay.getScore() == claimedScore;
+    }
+}
@@ -0,0 +1,101 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A game in progress as it is saved: the {@link GameBoard}, the score, and the packed
+ * {@link UndoHistory} and {@link GameRecord} (whose seed fixes every tile still to come).
+ * {@link #toBytes()} packs it all into one blob, with the board as its size and a byte a
+ * cell.
+ */
+public class SavedGame {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int NO_BLOCK = -1;
+
+    public final GameBoard board;
+    public final int score;
+    // Either may be null if the game has none
+    public final byte[] undoHistory;
+    public final byte[] record;
+
+    public SavedGame(GameBoard board, int score, byte[] undoHistory, byte[] record) {
+        this.board = board;
+        this.score = score;
+        this.undoHistory = undoHistory;
+        this.record = record;
+    }
+
+    public byte[] toBytes() {
+        int size = 20 + board.cellCount() + (undoHistory != null ? undoHistory.length : 0) + (record != null ? record.length : 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(board.size());
+            for (int cell = 0; cell < board.cellCount(); cell++)
+                out.writeByte(board.exponentAt(cell));
+            out.writeInt(score);
+            writeBlock(out, undoHistory);
+            writeBlock(out, record);
+        } catch (IOException e) {
+            throw new AssertionError(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the bytes aren't a game packed by {@link #toBytes()}
+     */
+    public static SavedGame fromBytes(byte[] packed) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(packed))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+                throw new IOException("Unknown saved game version " + version);
+            GameBoard board = readBoard(in);
+            int score = in.readInt();
+            byte[] undoHistory = readBlock(in);
+            byte[] record = readBlock(in);
+            if (in.available() != 0)
+                throw new IOException("Saved game has " + in.available() + " bytes left over");
+            return new SavedGame(board, score, undoHistory, record);
+        }
+    }
+
+    private static GameBoard readBoard(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < GameBoard.MIN_SIZE || size > GameBoard.MAX_SIZE)
+            throw new IOException("Saved game has a bad board size: " + size);
+        GameBoard board = new GameBoard(size);
+        try {
+            for (int cell = 0; cell < board.cellCount(); cell++)
+                board.setExponent(cell, in.readByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Saved game has a bad board", e);
+        }
+        return board;
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] block) throws IOException {
+        if (block == null) {
+            out.writeInt(NO_BLOCK);
+            return;
+        }
+        out.writeInt(block.length);
+        out.write(block);
+    }
+
+    private static byte[] readBlock(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NO_BLOCK)
+            return null;
+        if (length < 0 || length > in.available())
+            throw new IOException("Bad block length in saved game: " + length);
+        byte[] block = new byte[length];
+        in.readFully(block);
+        return block;
+    }
+}
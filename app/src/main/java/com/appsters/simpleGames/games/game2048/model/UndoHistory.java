@@ -0,0 +1,172 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The states a game went through before its current one, most recent last, for undo.
+ * Each is a board and the score at that point, kept in a ring buffer: once full, every
+ * new state drops the oldest.
+ *
+ * 4x4 boards are kept packed, 12 bytes a state, so 1,000 steps take about 12 KB. Larger
+ * boards take a byte a cell, and hold proportionally fewer states by default so the
+ * history stays about the same size.
+ */
+public class UndoHistory {
+
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int boardSize;
+    private final int cellCount;
+    private final int capacity;
+    // Packed boards, or cellCount exponents per state for larger boards; the other is null
+    private final long[] boards;
+    private final byte[] cells;
+    private final int[] scores;
+    // Slot of the oldest state, and how many are held
+    private int first = 0;
+    private int size = 0;
+
+    public UndoHistory(int boardSize) {
+        this(boardSize, boardSize == GameBoard.PACKED_SIZE ? DEFAULT_CAPACITY
+                : DEFAULT_CAPACITY * GameBoard.PACKED_SIZE * GameBoard.PACKED_SIZE / (boardSize * boardSize));
+    }
+
+    public UndoHistory(int boardSize, int capacity) {
+        this.boardSize = boardSize;
+        this.cellCount = boardSize * boardSize;
+        this.capacity = capacity;
+        boolean packed = boardSize == GameBoard.PACKED_SIZE;
+        boards = packed ? new long[capacity] : null;
+        cells = packed ? null : new byte[capacity * cellCount];
+        scores = new int[capacity];
+    }
+
+    public int boardSize() {
+        return boardSize;
+    }
+
+    public void push(GameBoard board, int score) {
+        int slot = (first + size) % capacity;
+        if (boards != null)
+            boards[slot] = board.packed();
+        else
+            board.writeCells(cells, slot * cellCount);
+        scores[slot] = score;
+        if (size < capacity)
+            size++;
+        else
+            first = (first + 1) % capacity;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the board of the most recent state into {@code into}. The history must not be
+     * empty.
+     */
+    public void restoreLast(GameBoard into) {
+        int slot = lastSlot();
+        if (boards != null)
+            into.setPacked(boards[slot]);
+        else
+            into.readCells(cells, slot * cellCount);
+    }
+
+    public int lastScore() {
+        return scores[lastSlot()];
+    }
+
+    /**
+     * Drops the most recent state, e.g. after restoring it.
+     */
+    public void pop() {
+        lastSlot();
+        size--;
+    }
+
+    public void clear() {
+        first = 0;
+        size = 0;
+    }
+
+    private int lastSlot() {
+        if (size == 0)
+            throw new IllegalStateException("Undo history is empty");
+        return (first + size - 1) % capacity;
+    }
+
+    private int stateBytes() {
+        return (boards != null ? 8 : cellCount) + 4;
+    }
+
+    /**
+     * Packs the history, oldest state first, for saving alongside the game.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(12 + size * stateBytes());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(boardSize);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                int slot = (first + i) % capacity;
+                if (boards != null)
+                    out.writeLong(boards[slot]);
+                else
+                    out.write(cells, slot * cellCount, cellCount);
+                out.writeInt(scores[slot]);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replaces the history with one packed by {@link #toBytes()} for the same board size.
+     * If there are more states than fit, the oldest are dropped.
+     *
+     * @throws IOException if the bytes aren't a packed history for this board size
+     */
+    public void readBytes(byte[] packed) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(packed))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+                throw new IOException("Unknown undo history version " + version);
+            int savedSize = in.readInt();
+            if (savedSize != boardSize)
+                throw new IOException("Undo history is for " + savedSize + "x" + savedSize + " boards");
+            int count = in.readInt();
+            if (count < 0 || (long) count * stateBytes() != packed.length - 12)
+                throw new IOException("Undo history length doesn't match its " + count + " states");
+
+            clear();
+            GameBoard board = new GameBoard(boardSize);
+            byte[] stateCells = boards != null ? null : new byte[cellCount];
+            for (int i = 0; i < count; i++) {
+                if (boards != null) {
+                    board.setPacked(in.readLong());
+                } else {
+                    in.readFully(stateCells);
+                    board.readCells(stateCells, 0);
+                }
+                push(board, in.readInt());
+            }
+        } catch (IllegalArgumentException e) {
+            clear();
+            throw new IOException("Undo history has a bad board", e);
+        }
+    }
+}
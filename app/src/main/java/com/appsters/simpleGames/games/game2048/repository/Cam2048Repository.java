@@ -2,21 +2,68 @@ package com.appsters.simpleGames.games.game2048.repository;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.util.AtomicFile;
+import android.util.Log;
 
+import com.appsters.simpleGames.games.game2048.model.BitBoard;
+import com.appsters.simpleGames.games.game2048.model.GameBoard;
+import com.appsters.simpleGames.games.game2048.model.SavedGame;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Saved 2048 games and high scores of the signed-in user.
+ *
+ * A game in progress is stored as one packed {@link SavedGame} in a file per user, which
+ * is replaced atomically on every save. Saves are only queued here: a single background thread writes them, and a save queued while an earlier one
+ * is still waiting replaces it, so saves in quick succession become one write. Until it
+ * has been written, the queued save is what {@link #getSavedGame()} returns.
+ *
+ * High scores and the board size are small and live in SharedPreferences. High scores are
+ * read once and kept in memory, and written by the same thread.
+ */
 public class Cam2048Repository {
 
+    private static final String TAG = "Cam2048Repository";
+
     private static final String PREFS_NAME = "Game2048Prefs";
     private static final String HIGH_SCORE_KEY_PREFIX = "high_score_";
+    private static final String BOARD_SIZE_KEY_PREFIX = "board_size_";
+    // Games saved as a comma-separated board and a score, before they were packed
     private static final String SAVED_BOARD_KEY_PREFIX = "saved_board_";
     private static final String SAVED_SCORE_KEY_PREFIX = "saved_score_";
 
+    private static final String SAVED_GAMES_DIR = "game2048";
+
+    // Shared by all instances so writes land in the order they were made
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Game2048Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Object LOCK = new Object();
+    // Latest unwritten save of each user; null to clear the saved game
+    private static final Map<String, SavedGame> PENDING_GAMES = new HashMap<>();
+    private static boolean flushScheduled = false;
+    // High scores of the users read so far
+    private static final Map<String, Integer> HIGH_SCORES = new HashMap<>();
+
     private final SharedPreferences sharedPreferences;
+    private final File savedGamesDir;
 
     public Cam2048Repository(Context context) {
         sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        savedGamesDir = new File(context.getApplicationContext().getFilesDir(), SAVED_GAMES_DIR);
     }
 
     private FirebaseUser getCurrentUser() {
@@ -27,84 +74,196 @@ public class Cam2048Repository {
         FirebaseUser user = getCurrentUser();
         if (user == null)
             return 0;
-        return sharedPreferences.getInt(HIGH_SCORE_KEY_PREFIX + user.getUid(), 0);
+        synchronized (LOCK) {
+            return highScoreOf(user.getUid());
+        }
+    }
+
+    private int highScoreOf(String uid) {
+        Integer highScore = HIGH_SCORES.get(uid);
+        if (highScore == null) {
+            highScore = sharedPreferences.getInt(HIGH_SCORE_KEY_PREFIX + uid, 0);
+            HIGH_SCORES.put(uid, highScore);
+        }
+        return highScore;
     }
 
     public void saveHighScore(int score) {
         FirebaseUser user = getCurrentUser();
         if (user == null)
             return;
-        int currentHighScore = getHighScore();
-        if (score > currentHighScore) {
-            SharedPreferences.Editor editor = sharedPreferences.edit();
-            editor.putInt(HIGH_SCORE_KEY_PREFIX + user.getUid(), score);
-            editor.apply();
+        String uid = user.getUid();
+        synchronized (LOCK) {
+            if (score <= highScoreOf(uid))
+                return;
+            HIGH_SCORES.put(uid, score);
         }
+        WRITER.execute(() -> commit(sharedPreferences.edit().putInt(HIGH_SCORE_KEY_PREFIX + uid, score)));
     }
 
-    public void saveGameState(int[][] board, int score) {
+    /**
+     * Board size new games start with.
+     */
+    public int getBoardSize() {
         FirebaseUser user = getCurrentUser();
         if (user == null)
-            return;
-        SharedPreferences.Editor editor = sharedPreferences.edit();
+            return GameBoard.PACKED_SIZE;
+        int size = sharedPreferences.getInt(BOARD_SIZE_KEY_PREFIX + user.getUid(), GameBoard.PACKED_SIZE);
+        return size >= GameBoard.MIN_SIZE && size <= GameBoard.MAX_SIZE ? size : GameBoard.PACKED_SIZE;
+    }
 
-        StringBuilder boardString = new StringBuilder();
-        for (int[] row : board) {
-            for (int cell : row) {
-                boardString.append(cell).append(",");
-            }
-        }
+    public void saveBoardSize(int size) {
+        FirebaseUser user = getCurrentUser();
+        if (user == null)
+            return;
+        String uid = user.getUid();
+        WRITER.execute(() -> commit(sharedPreferences.edit().putInt(BOARD_SIZE_KEY_PREFIX + uid, size)));
+    }
 
-        editor.putString(SAVED_BOARD_KEY_PREFIX + user.getUid(), boardString.toString());
-        editor.putInt(SAVED_SCORE_KEY_PREFIX + user.getUid(), score);
-        editor.apply();
+    /**
+     * Queues the game in progress to be saved.
+     */
+    public void saveGameState(SavedGame game) {
+        FirebaseUser user = getCurrentUser();
+        if (user == null)
+            return;
+        queueGame(user.getUid(), game);
     }
 
-    public int[][] getSavedBoard() {
+    /**
+     * The game in progress last saved, or null if there is none.
+     */
+    public SavedGame getSavedGame() {
         FirebaseUser user = getCurrentUser();
         if (user == null)
             return null;
-        String boardString = sharedPreferences.getString(SAVED_BOARD_KEY_PREFIX + user.getUid(), null);
-        if (boardString == null || boardString.isEmpty())
+        String uid = user.getUid();
+        synchronized (LOCK) {
+            if (PENDING_GAMES.containsKey(uid))
+                return PENDING_GAMES.get(uid);
+        }
+
+        try {
+            return SavedGame.fromBytes(savedGameFile(uid).readFully());
+        } catch (FileNotFoundException e) {
+            return getLegacySavedGame(uid);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read saved game", e);
             return null;
+        }
+    }
 
-        String[] values = boardString.split(",");
-        if (values.length != 16)
+    private AtomicFile savedGameFile(String uid) {
+        return new AtomicFile(new File(savedGamesDir, uid + ".save"));
+    }
+
+    /**
+     * A game saved in SharedPreferences with the board as comma-separated values, as before
+     * games were packed. It has no undo history or record.
+     */
+    private SavedGame getLegacySavedGame(String uid) {
+        String boardString = sharedPreferences.getString(SAVED_BOARD_KEY_PREFIX + uid, null);
+        int score = sharedPreferences.getInt(SAVED_SCORE_KEY_PREFIX + uid, -1);
+        if (boardString == null || boardString.isEmpty() || score == -1)
             return null;
 
-        int[][] board = new int[4][4];
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                board[i][j] = Integer.parseInt(values[i * 4 + j]);
-            }
+        String[] values = boardString.split(",");
+        if (values.length != BitBoard.CELLS)
+            return null;
+        GameBoard board = new GameBoard(GameBoard.PACKED_SIZE);
+        try {
+            for (int cell = 0; cell < BitBoard.CELLS; cell++)
+                board.setExponent(cell, BitBoard.exponentOf(Integer.parseInt(values[cell])));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        return board;
+        return new SavedGame(board, score, null, null);
     }
 
-    public int getSavedScore() {
+    public void clearSavedState() {
         FirebaseUser user = getCurrentUser();
         if (user == null)
-            return -1;
-        return sharedPreferences.getInt(SAVED_SCORE_KEY_PREFIX + user.getUid(), -1);
+            return;
+        queueGame(user.getUid(), null);
     }
 
-    public void clearSavedState() {
-        FirebaseUser user = getCurrentUser();
-        if (user == null)
+    private void queueGame(String uid, SavedGame game) {
+        synchronized (LOCK) {
+            PENDING_GAMES.put(uid, game);
+            if (flushScheduled)
+                return;
+            flushScheduled = true;
+        }
+        WRITER.execute(this::flushGames);
+    }
+
+    /**
+     * Writes the queued saves. Each stays queued until written, unless a newer one has
+     * replaced it in the meantime.
+     */
+    private void flushGames() {
+        Map<String, SavedGame> games;
+        synchronized (LOCK) {
+            flushScheduled = false;
+            games = new HashMap<>(PENDING_GAMES);
+        }
+
+        for (Map.Entry<String, SavedGame> entry : games.entrySet()) {
+            String uid = entry.getKey();
+            SavedGame game = entry.getValue();
+            if (game != null)
+                writeGame(savedGameFile(uid), game);
+            else
+                savedGameFile(uid).delete();
+            // The prefs file is only rewritten once, to drop a migrated legacy game
+            if (sharedPreferences.contains(SAVED_BOARD_KEY_PREFIX + uid)
+                    || sharedPreferences.contains(SAVED_SCORE_KEY_PREFIX + uid)) {
+                commit(sharedPreferences.edit()
+                        .remove(SAVED_BOARD_KEY_PREFIX + uid)
+                        .remove(SAVED_SCORE_KEY_PREFIX + uid));
+            }
+        }
+
+        synchronized (LOCK) {
+            for (Map.Entry<String, SavedGame> entry : games.entrySet()) {
+                String uid = entry.getKey();
+                if (PENDING_GAMES.containsKey(uid) && PENDING_GAMES.get(uid) == entry.getValue())
+                    PENDING_GAMES.remove(uid);
+            }
+        }
+    }
+
+    private void writeGame(AtomicFile file, SavedGame game) {
+        if (!savedGamesDir.isDirectory() && !savedGamesDir.mkdirs()) {
+            Log.e(TAG, "Could not create " + savedGamesDir);
             return;
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.remove(SAVED_BOARD_KEY_PREFIX + user.getUid());
-        editor.remove(SAVED_SCORE_KEY_PREFIX + user.getUid());
-        editor.apply();
+        }
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(game.toBytes());
+            file.finishWrite(out);
+        } catch (IOException e) {
+            if (out != null)
+                file.failWrite(out);
+            Log.e(TAG, "Could not write saved game", e);
+        }
+    }
+
+    private static void commit(SharedPreferences.Editor editor) {
+        if (!editor.commit())
+            Log.e(TAG, "Could not write 2048 prefs");
     }
 
     public void clearHighScore() {
         FirebaseUser user = getCurrentUser();
         if (user == null)
             return;
-        android.util.Log.d("Cam2048Repository", "Clearing high score for user: " + user.getUid());
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.remove(HIGH_SCORE_KEY_PREFIX + user.getUid());
-        editor.apply();
+        String uid = user.getUid();
+        Log.d(TAG, "Clearing high score for user: " + uid);
+        synchronized (LOCK) {
+            HIGH_SCORES.put(uid, 0);
+        }
+        WRITER.execute(() -> commit(sharedPreferences.edit().remove(HIGH_SCORE_KEY_PREFIX + uid)));
     }
 }
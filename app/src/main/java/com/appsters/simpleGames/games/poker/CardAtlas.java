@@ -0,0 +1,109 @@
+package com.appsters.simpleGames.games.poker;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.appsters.simpleGames.R;
+import com.appsters.simpleGames.games.poker.model.Card;
+
+/**
+ * All 52 card faces plus the back in one bundled image (res/drawable-nodpi/card_atlas.png,
+ * drawn by tools/CardAtlasGenerator.java). The atlas is decoded once per process and every
+ * card view draws its own cell of the shared bitmap, so cards need no network and no
+ * further decodes.
+ *
+ * Layout: 13 columns of CELL_WIDTH x CELL_HEIGHT cells; the face of a card is cell
+ * {@link Card#id}, the back is cell {@link #BACK_CELL}.
+ */
+public final class CardAtlas {
+
+    private static final int CELL_WIDTH = 100;
+    private static final int CELL_HEIGHT = 150;
+    private static final int COLUMNS = 13;
+    private static final int BACK_CELL = 52;
+
+    private static Bitmap atlas;
+
+    private CardAtlas() {
+    }
+
+    private static synchronized Bitmap atlas(Resources resources) {
+        if (atlas == null) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inScaled = false;
+            atlas = BitmapFactory.decodeResource(resources, R.drawable.card_atlas, options);
+        }
+        return atlas;
+    }
+
+    /**
+     * Face of the card with the given code (e.g. "AS", "0H"), or null if it isn't one.
+     */
+    @Nullable
+    public static Drawable face(Resources resources, String code) {
+        Card card = Card.fromCode(code);
+        return card == null ? null : new CellDrawable(atlas(resources), card.id);
+    }
+
+    public static Drawable back(Resources resources) {
+        return new CellDrawable(atlas(resources), BACK_CELL);
+    }
+
+    /**
+     * Draws one atlas cell scaled to its bounds. Cheap to create; it shares the atlas bitmap.
+     */
+    private static class CellDrawable extends Drawable {
+        private final Bitmap atlas;
+        private final Rect source;
+        private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
+
+        CellDrawable(Bitmap atlas, int cell) {
+            this.atlas = atlas;
+            int left = (cell % COLUMNS) * CELL_WIDTH;
+            int top = (cell / COLUMNS) * CELL_HEIGHT;
+            this.source = new Rect(left, top, left + CELL_WIDTH, top + CELL_HEIGHT);
+        }
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            canvas.drawBitmap(atlas, source, getBounds(), paint);
+        }
+
+        @Override
+        public int getIntrinsicWidth() {
+            return CELL_WIDTH;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return CELL_HEIGHT;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+            paint.setAlpha(alpha);
+            invalidateSelf();
+        }
+
+        @Override
+        public void setColorFilter(@Nullable ColorFilter colorFilter) {
+            paint.setColorFilter(colorFilter);
+            invalidateSelf();
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.os.Bundle;
 import android.content.res.ColorStateList;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.Button;
 import android.widget.SeekBar;
 import android.view.ViewGroup;
 
@@ -15,12 +16,24 @@ import androidx.core.content.ContextCompat;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 
+import com.appsters.simpleGames.app.util.ImageBindingAdapters;
 import com.appsters.simpleGames.databinding.FragmentPokerBinding;
+import com.appsters.simpleGames.databinding.ItemPokerSeatBinding;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class PokerFragment extends Fragment {
 
     private FragmentPokerBinding binding;
     private PokerViewModel viewModel;
+    // Buy-in and seat count currently highlighted, so the buttons are only re-tinted when
+    // they change
+    private int renderedBuyIn = -1;
+    private int renderedSeats = -1;
+    // Opponent seat views, and the seat list they currently show
+    private final List<ItemPokerSeatBinding> seatViews = new ArrayList<>();
+    private List<PokerUiState.Seat> renderedOpponents;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -41,6 +54,12 @@ public class PokerFragment extends Fragment {
         binding.buyIn50Button.setOnClickListener(v -> viewModel.selectBuyIn(50));
         binding.buyIn500Button.setOnClickListener(v -> viewModel.selectBuyIn(500));
 
+        Button[] seatButtons = seatButtons();
+        for (int i = 0; i < seatButtons.length; i++) {
+            int seats = i + 2;
+            seatButtons[i].setOnClickListener(v -> viewModel.selectSeats(seats));
+        }
+
         binding.claimFreeCoinsButton.setOnClickListener(v -> viewModel.claimFreeCoins());
         binding.startHandButton.setOnClickListener(v -> viewModel.startHand());
         binding.checkButton.setOnClickListener(v -> viewModel.playerCheck());
@@ -70,39 +89,8 @@ public class PokerFragment extends Fragment {
             }
         });
 
-        // Keep slider max/value in sync with ViewModel
-        viewModel.raiseMax.observe(getViewLifecycleOwner(), max -> {
-            int safeMax = (max == null ? 1 : Math.max(1, max));
-            binding.raiseAmountSeekBar.setMax(Math.max(0, safeMax - 1));
-            Integer current = viewModel.raiseAmount.getValue();
-            int amount = (current == null ? 1 : current);
-            amount = Math.max(1, Math.min(safeMax, amount));
-            binding.raiseAmountSeekBar.setProgress(amount - 1);
-        });
-
-        viewModel.raiseAmount.observe(getViewLifecycleOwner(), amount -> {
-            Integer max = viewModel.raiseMax.getValue();
-            int safeMax = (max == null ? 1 : Math.max(1, max));
-            int a = (amount == null ? 1 : amount);
-            a = Math.max(1, Math.min(safeMax, a));
-            if (binding.raiseAmountSeekBar.getProgress() != a - 1) {
-                binding.raiseAmountSeekBar.setProgress(a - 1);
-            }
-
-        });
-
-        // Highlight selected buy-in button
-        viewModel.selectedBuyIn.observe(getViewLifecycleOwner(), sel -> {
-            int selectedColor = ContextCompat.getColor(requireContext(), android.R.color.holo_blue_light);
-            int normalColor = ContextCompat.getColor(requireContext(), android.R.color.darker_gray);
-
-            binding.buyIn5Button.setBackgroundTintList(
-                    ColorStateList.valueOf((sel != null && sel == 5) ? selectedColor : normalColor));
-            binding.buyIn50Button.setBackgroundTintList(
-                    ColorStateList.valueOf((sel != null && sel == 50) ? selectedColor : normalColor));
-            binding.buyIn500Button.setBackgroundTintList(
-                    ColorStateList.valueOf((sel != null && sel == 500) ? selectedColor : normalColor));
-        });
+        // Keep slider max/value and the selected buy-in in sync with the UI state
+        viewModel.uiState.observe(getViewLifecycleOwner(), this::renderControls);
 
         binding.btnHelp.setOnClickListener(v -> {
             new com.google.android.material.dialog.MaterialAlertDialogBuilder(requireContext(),
@@ -116,9 +104,86 @@ public class PokerFragment extends Fragment {
 
     }
 
+    /**
+     * Updates the views data binding doesn't drive. Only touches views whose value changed,
+     * so an unrelated state change (e.g. the free-coins countdown) costs nothing here.
+     */
+    private void renderControls(PokerUiState state) {
+        int sliderMax = Math.max(0, state.raiseMax - 1);
+        if (binding.raiseAmountSeekBar.getMax() != sliderMax)
+            binding.raiseAmountSeekBar.setMax(sliderMax);
+        int progress = Math.max(1, Math.min(state.raiseMax, state.raiseAmount)) - 1;
+        if (binding.raiseAmountSeekBar.getProgress() != progress)
+            binding.raiseAmountSeekBar.setProgress(progress);
+
+        renderOpponents(state.opponents);
+
+        int selectedColor = ContextCompat.getColor(requireContext(), android.R.color.holo_blue_light);
+        int normalColor = ContextCompat.getColor(requireContext(), android.R.color.darker_gray);
+
+        // Highlight selected buy-in button
+        if (renderedBuyIn != state.selectedBuyIn) {
+            renderedBuyIn = state.selectedBuyIn;
+            int sel = state.selectedBuyIn;
+            binding.buyIn5Button.setBackgroundTintList(ColorStateList.valueOf(sel == 5 ? selectedColor : normalColor));
+            binding.buyIn50Button.setBackgroundTintList(ColorStateList.valueOf(sel == 50 ? selectedColor : normalColor));
+            binding.buyIn500Button.setBackgroundTintList(ColorStateList.valueOf(sel == 500 ? selectedColor : normalColor));
+        }
+
+        // Highlight selected seat count
+        if (renderedSeats != state.seatCount) {
+            renderedSeats = state.seatCount;
+            Button[] seatButtons = seatButtons();
+            for (int i = 0; i < seatButtons.length; i++) {
+                seatButtons[i].setBackgroundTintList(
+                        ColorStateList.valueOf(i + 2 == state.seatCount ? selectedColor : normalColor));
+            }
+        }
+    }
+
+    private Button[] seatButtons() {
+        return new Button[] { binding.seats2Button, binding.seats3Button, binding.seats4Button, binding.seats5Button,
+                binding.seats6Button };
+    }
+
+    /**
+     * Shows the AI seats of a table hand. The reducer keeps the same list while the seats
+     * don't change, so most states skip this entirely.
+     */
+    private void renderOpponents(List<PokerUiState.Seat> opponents) {
+        if (opponents == renderedOpponents)
+            return;
+        renderedOpponents = opponents;
+
+        ViewGroup container = binding.opponentSeatsLayout;
+        while (seatViews.size() > opponents.size()) {
+            seatViews.remove(seatViews.size() - 1);
+            container.removeViewAt(container.getChildCount() - 1);
+        }
+        while (seatViews.size() < opponents.size()) {
+            ItemPokerSeatBinding seatView = ItemPokerSeatBinding.inflate(getLayoutInflater(), container, false);
+            container.addView(seatView.getRoot());
+            seatViews.add(seatView);
+        }
+
+        for (int i = 0; i < opponents.size(); i++) {
+            PokerUiState.Seat seat = opponents.get(i);
+            ItemPokerSeatBinding seatView = seatViews.get(i);
+            seatView.seatName.setText(seat.winner ? seat.name + " \u2605" : seat.name);
+            seatView.seatStack.setText(String.valueOf(seat.stack));
+            seatView.seatAction.setText(seat.action);
+            ImageBindingAdapters.loadCard(seatView.seatCard1, seat.cardCodes.get(0), seat.faceUp);
+            ImageBindingAdapters.loadCard(seatView.seatCard2, seat.cardCodes.get(1), seat.faceUp);
+        }
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
+        renderedBuyIn = -1;
+        renderedSeats = -1;
+        seatViews.clear();
+        renderedOpponents = null;
     }
 }
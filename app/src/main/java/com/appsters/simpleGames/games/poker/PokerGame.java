@@ -2,7 +2,9 @@ package com.appsters.simpleGames.games.poker;
 
 import android.content.Context;
 import com.appsters.simpleGames.games.interfaces.IGame;
+import com.appsters.simpleGames.games.poker.repo.HandHistoryRepository;
 import com.appsters.simpleGames.games.poker.repo.RandPokerRepository;
+import com.google.firebase.auth.FirebaseAuth;
 
 public class PokerGame implements IGame {
     private final Context context;
@@ -19,5 +21,9 @@ public class PokerGame implements IGame {
         // Assuming RandPokerRepository takes Context or Application.
         RandPokerRepository repository = new RandPokerRepository(context);
         repository.clearAllState();
+
+        String userId = FirebaseAuth.getInstance().getUid();
+        if (userId != null)
+            new HandHistoryRepository(context).clear(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,481 @@
+package com.appsters.simpleGames.games.poker;
+
+import com.appsters.simpleGames.games.poker.PokerUiState.HandStage;
+import com.appsters.simpleGames.games.poker.PokerUiState.Phase;
+import com.appsters.simpleGames.games.poker.model.Card;
+import com.appsters.simpleGames.games.poker.model.Outs;
+import com.appsters.simpleGames.games.poker.model.PokerEquityEngine;
+import com.appsters.simpleGames.games.poker.model.PokerHand;
+import com.appsters.simpleGames.games.poker.model.PokerTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State transitions of the poker screen: each takes the current {@link PokerUiState} and
+ * what just happened, and returns the next snapshot. Pure Java with no Android
+ * dependencies, so transitions can be exercised directly against a {@link PokerHand} or
+ * {@link PokerTable}.
+ *
+ * Transitions compose: a caller may chain several and publish only the last result.
+ */
+final class PokerUiReducer {
+
+    static final String SIGNED_OUT_FREE_TEXT = "Sign in required for free coins";
+    static final String FREE_READY_TEXT = "Free +10 coins ready!";
+
+    private static final HandStage[] STREETS = { HandStage.PREFLOP, HandStage.FLOP, HandStage.TURN,
+            HandStage.RIVER };
+
+    private PokerUiReducer() {
+    }
+
+    static PokerUiState signedOut(PokerUiState state) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = 0;
+        next.freeAvailable = false;
+        next.freeTimerText = SIGNED_OUT_FREE_TEXT;
+        return next.build();
+    }
+
+    static PokerUiState message(PokerUiState state, String status) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.status = status;
+        return next.build();
+    }
+
+    static PokerUiState freeCoinsTimer(PokerUiState state, boolean available, String timerText) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.freeAvailable = available;
+        next.freeTimerText = timerText;
+        return next.build();
+    }
+
+    /**
+     * New balance from the repository. Mid-hand the raise slider is re-clamped to it.
+     */
+    static PokerUiState coinsRefreshed(PokerUiState state, int coins, boolean freeAvailable) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.freeAvailable = freeAvailable;
+        if (state.phase == Phase.IN_HAND)
+            clampRaise(next);
+        return next.build();
+    }
+
+    static PokerUiState buyInSelected(PokerUiState state, int buyIn) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.selectedBuyIn = buyIn;
+        return next.build();
+    }
+
+    /**
+     * Seats for the next hand: 2 plays the dealer heads-up, 3-6 a table. Ignored mid-hand.
+     */
+    static PokerUiState seatsSelected(PokerUiState state, int seats) {
+        if (state.phase == Phase.IN_HAND)
+            return state;
+        PokerUiState.Builder next = state.toBuilder();
+        next.seatCount = seats;
+        return next.build();
+    }
+
+    /**
+     * Slider progress is 0..(raiseMax-1) and maps to raise amount 1..raiseMax.
+     */
+    static PokerUiState raiseSliderMoved(PokerUiState state, int progress) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.raiseAmount = Math.max(1, Math.min(state.raiseMax, progress + 1));
+        return next.build();
+    }
+
+    /**
+     * A hand was just dealt and the buy-in charged; {@code coins} is the balance after it.
+     */
+    static PokerUiState handStarted(PokerUiState state, PokerHand hand, int coins) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.phase = Phase.IN_HAND;
+        next.handStage = HandStage.PREFLOP;
+        next.handBuyIn = hand.getBuyIn();
+        next.dealerCardsFaceUp = false;
+        next.opponents = Collections.emptyList();
+        next.revealEnabled = false;
+        next.bettingEnabled = true;
+        next.equity = null;
+        next.oddsPending = false;
+        clearOuts(next);
+        next.status = "New hand (pre-flop). Your move: check or raise.";
+        copyCards(next, hand);
+        copyPot(next, hand);
+        clampRaise(next);
+        return next.build();
+    }
+
+    static PokerUiState playerChecked(PokerUiState state, PokerHand hand) {
+        return waitForDealer(state, hand, state.coins,
+                streetName(hand.getStreet()) + ": You check. Dealer is thinking...");
+    }
+
+    /**
+     * The player has put in {@code raise}; {@code coins} is the balance after it.
+     */
+    static PokerUiState playerRaised(PokerUiState state, PokerHand hand, int coins, int raise) {
+        return waitForDealer(state, hand, coins,
+                streetName(hand.getStreet()) + ": You raise +" + raise + ". Dealer is thinking...");
+    }
+
+    /**
+     * The dealer has answered the player's action and betting on this street is over.
+     * On the river the caller goes straight on to {@link #showdown}.
+     *
+     * @param dealerRaise the raise the dealer actually made, 0 for a check or call
+     */
+    static PokerUiState dealerActed(PokerUiState state, PokerHand hand, int coins, boolean playerRaised,
+            int dealerRaise) {
+        String street = streetName(hand.getStreet());
+        String status;
+        if (playerRaised) {
+            int raise = hand.getPlayerRaise(hand.getStreet());
+            status = dealerRaise > 0
+                    ? street + ": You raise +" + raise + ". Dealer raises +" + dealerRaise + ". You call."
+                    : street + ": You raise +" + raise + ". Dealer calls.";
+        } else {
+            status = dealerRaise > 0
+                    ? street + ": You check. Dealer raises +" + dealerRaise + ". You call."
+                    : street + ": You check. Dealer checks.";
+        }
+
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.bettingEnabled = false;
+        clampRaise(next);
+        copyPot(next, hand);
+        endStreet(next, hand.getRevealedCount(), status);
+        return next.build();
+    }
+
+    /**
+     * The next street's cards are face up and the player is to act.
+     */
+    static PokerUiState streetRevealed(PokerUiState state, PokerHand hand) {
+        PokerUiState.Builder next = state.toBuilder();
+        openStreet(next, hand.getStreet());
+        copyCards(next, hand);
+        return next.build();
+    }
+
+    /**
+     * The hand has been settled; {@code coins} includes the payout.
+     */
+    static PokerUiState showdown(PokerUiState state, PokerHand hand, int coins, PokerHand.Showdown result) {
+        String resultText;
+        if (result.playerWins()) {
+            resultText = "You win! (" + result.playerHandName() + " beats " + result.dealerHandName() + ") +"
+                    + result.payout;
+        } else if (result.dealerWins()) {
+            resultText = "Dealer wins. (" + result.dealerHandName() + " beats " + result.playerHandName() + ") +"
+                    + result.payout;
+        } else {
+            // Tie: your contribution comes back (no multiplier on ties)
+            resultText = "Tie. (" + result.playerHandName() + ") +" + result.payout;
+        }
+
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.phase = Phase.SHOWDOWN;
+        next.dealerCardsFaceUp = true;
+        next.revealEnabled = false;
+        next.bettingEnabled = false;
+        next.equity = null;
+        next.oddsPending = false;
+        clearOuts(next);
+        next.status = resultText + " coins. Tap Start Hand to play again.";
+        copyCards(next, hand);
+        clampRaise(next);
+        return next.build();
+    }
+
+    /**
+     * A table hand was just dealt and every seat has anted; {@code coins} is the player's
+     * balance after the ante.
+     */
+    static PokerUiState tableHandStarted(PokerUiState state, PokerTable table, int coins) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.phase = Phase.IN_HAND;
+        next.handStage = HandStage.PREFLOP;
+        next.handBuyIn = table.getBuyIn();
+        next.dealerCardCodes = Collections.emptyList();
+        next.dealerCardsFaceUp = false;
+        next.revealEnabled = false;
+        next.bettingEnabled = true;
+        // Live odds are heads-up only
+        next.equity = null;
+        next.oddsPending = false;
+        clearOuts(next);
+        next.status = "New hand (pre-flop) at " + table.getSeats() + " seats. Your move: check or raise.";
+        copyTableCards(next, table);
+        copyTablePot(next, table);
+        next.opponents = seats(table, null, false);
+        clampRaise(next);
+        return next.build();
+    }
+
+    /**
+     * The player has acted at a table; the AI seats are deciding.
+     *
+     * @param raise the player's raise, 0 for a check
+     */
+    static PokerUiState tablePlayerActed(PokerUiState state, PokerTable table, int raise) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.bettingEnabled = false;
+        next.status = streetName(table.getStreet()) + (raise > 0 ? ": You raise +" + raise : ": You check")
+                + ". Opponents are thinking...";
+        clampRaise(next);
+        return next.build();
+    }
+
+    /**
+     * Every seat has acted and called at a table. On the river the caller goes on to
+     * evaluate the showdown and then {@link #tableShowdown}.
+     */
+    static PokerUiState tableBettingDone(PokerUiState state, PokerTable table, int coins) {
+        StringBuilder status = new StringBuilder(streetName(table.getStreet())).append(": ");
+        int playerRaise = table.getStreetRaise(PokerTable.PLAYER);
+        status.append(playerRaise > 0 ? "You raise +" + playerRaise + "." : "You check.");
+        boolean anyRaise = playerRaise > 0;
+        for (int seat = 1; seat < table.getSeats(); seat++) {
+            int raise = table.getStreetRaise(seat);
+            if (raise > 0) {
+                status.append(' ').append(seatName(seat)).append(" raises +").append(raise).append('.');
+                anyRaise = true;
+            }
+        }
+        status.append(anyRaise ? " Everyone calls." : " Everyone checks.");
+
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.bettingEnabled = false;
+        next.opponents = seats(table, null, true);
+        clampRaise(next);
+        copyTablePot(next, table);
+        endStreet(next, table.getRevealedCount(), status.toString());
+        return next.build();
+    }
+
+    static PokerUiState tableStreetRevealed(PokerUiState state, PokerTable table) {
+        PokerUiState.Builder next = state.toBuilder();
+        openStreet(next, table.getStreet());
+        copyTableCards(next, table);
+        next.opponents = seats(table, null, false);
+        return next.build();
+    }
+
+    /**
+     * A table hand has been settled; {@code coins} includes the player's winnings.
+     */
+    static PokerUiState tableShowdown(PokerUiState state, PokerTable table, int coins,
+            PokerTable.Showdown showdown) {
+        StringBuilder status = new StringBuilder();
+        int won = showdown.payouts[PokerTable.PLAYER];
+        if (showdown.isWinner(PokerTable.PLAYER))
+            status.append("You win! (").append(showdown.handName(PokerTable.PLAYER)).append(") +").append(won);
+        else
+            status.append("You lose. (").append(showdown.handName(PokerTable.PLAYER)).append(") +0");
+        status.append(" coins.");
+        if (showdown.pots.size() > 1)
+            status.append(" Side pots: ").append(showdown.pots.size() - 1).append('.');
+        status.append(" Tap Start Hand to play again.");
+
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.phase = Phase.SHOWDOWN;
+        next.revealEnabled = false;
+        next.bettingEnabled = false;
+        clearOuts(next);
+        next.status = status.toString();
+        next.opponents = seats(table, showdown, false);
+        copyTableCards(next, table);
+        clampRaise(next);
+        return next.build();
+    }
+
+    static PokerUiState oddsPending(PokerUiState state) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.equity = null;
+        next.oddsPending = true;
+        return next.build();
+    }
+
+    static PokerUiState oddsUpdated(PokerUiState state, PokerEquityEngine.Equity equity) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.equity = equity;
+        next.oddsPending = false;
+        return next.build();
+    }
+
+    /**
+     * Outs for the street just revealed are still being counted.
+     */
+    static PokerUiState outsPending(PokerUiState state) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.outs = null;
+        next.outsPending = true;
+        return next.build();
+    }
+
+    static PokerUiState outsUpdated(PokerUiState state, Outs outs) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.outs = outs;
+        next.outsPending = false;
+        return next.build();
+    }
+
+    private static PokerUiState waitForDealer(PokerUiState state, PokerHand hand, int coins, String status) {
+        PokerUiState.Builder next = state.toBuilder();
+        next.coins = coins;
+        next.bettingEnabled = false;
+        next.status = status;
+        clampRaise(next);
+        copyPot(next, hand);
+        return next.build();
+    }
+
+    /**
+     * Opens betting on a street whose cards were just revealed. The previous street's outs
+     * no longer apply; callers chain {@link #outsUpdated} or {@link #outsPending}.
+     */
+    private static void openStreet(PokerUiState.Builder next, int street) {
+        next.handStage = STREETS[street];
+        clearOuts(next);
+        next.revealEnabled = false;
+        next.bettingEnabled = true;
+        next.status = streetName(street) + " revealed. Your move: check or raise.";
+        clampRaise(next);
+    }
+
+    /**
+     * Closes betting on a street and, before the river, prompts for the next reveal.
+     */
+    private static void endStreet(PokerUiState.Builder next, int revealedCount, String status) {
+        if (revealedCount == 5) {
+            next.revealEnabled = false;
+            next.status = status;
+            return;
+        }
+        String prompt;
+        if (revealedCount == 0)
+            prompt = " Tap to reveal the flop.";
+        else if (revealedCount == 3)
+            prompt = " Tap to reveal the turn.";
+        else
+            prompt = " Tap to reveal the river.";
+        next.revealEnabled = true;
+        next.status = status + prompt;
+    }
+
+    private static void clearOuts(PokerUiState.Builder next) {
+        next.outs = null;
+        next.outsPending = false;
+    }
+
+    private static String streetName(int street) {
+        switch (STREETS[street]) {
+            case PREFLOP:
+                return "Pre-flop";
+            case FLOP:
+                return "Flop";
+            case TURN:
+                return "Turn";
+            default:
+                return "River";
+        }
+    }
+
+    /**
+     * Keeps the raise slider within what the player can afford. It only matters while
+     * betting is open; otherwise it rests at 1.
+     */
+    private static void clampRaise(PokerUiState.Builder next) {
+        if (!next.bettingEnabled) {
+            next.raiseMax = 1;
+            next.raiseAmount = 1;
+            return;
+        }
+        // Absolute max: you can never raise more than you can currently afford.
+        int maxRaise = Math.max(1, next.coins);
+        int current = next.raiseAmount;
+        // Default the slider toward buyIn-sized raises when possible.
+        if (current <= 1 && maxRaise >= next.handBuyIn)
+            current = next.handBuyIn;
+        next.raiseMax = maxRaise;
+        next.raiseAmount = Math.max(1, Math.min(maxRaise, current));
+    }
+
+    private static void copyPot(PokerUiState.Builder next, PokerHand hand) {
+        next.payoutIfWin = hand.payoutIfWin();
+        next.playerContribution = hand.getPlayerContribution();
+    }
+
+    private static void copyTablePot(PokerUiState.Builder next, PokerTable table) {
+        // Winning every pot returns the whole table's stake
+        next.payoutIfWin = table.getPotTotal();
+        next.playerContribution = table.getCommitted(PokerTable.PLAYER);
+    }
+
+    private static void copyTableCards(PokerUiState.Builder next, PokerTable table) {
+        next.playerCardCodes = codes(table.getHole(PokerTable.PLAYER), 2);
+        next.revealedCount = table.getRevealedCount();
+        next.boardCardCodes = codes(table.getBoard(), table.getRevealedCount());
+    }
+
+    /**
+     * The AI seats as shown: cards face down until a showdown is given.
+     *
+     * @param showAction whether to show what each seat did on the street just played
+     */
+    private static List<PokerUiState.Seat> seats(PokerTable table, PokerTable.Showdown showdown,
+            boolean showAction) {
+        List<PokerUiState.Seat> seats = new ArrayList<>(table.getSeats() - 1);
+        for (int seat = 1; seat < table.getSeats(); seat++) {
+            String action;
+            if (showdown != null)
+                action = showdown.handName(seat);
+            else if (table.isAllIn(seat))
+                action = "All-in";
+            else if (!showAction)
+                action = "";
+            else if (table.getStreetRaise(seat) > 0)
+                action = "Raise +" + table.getStreetRaise(seat);
+            else
+                action = table.getStreetRaise(PokerTable.PLAYER) > 0 ? "Call" : "Check";
+            seats.add(new PokerUiState.Seat(seatName(seat), table.stackOf(seat), codes(table.getHole(seat), 2),
+                    showdown != null, action, showdown != null && showdown.isWinner(seat)));
+        }
+        return Collections.unmodifiableList(seats);
+    }
+
+    private static String seatName(int seat) {
+        return "Seat " + (seat + 1);
+    }
+
+    private static void copyCards(PokerUiState.Builder next, PokerHand hand) {
+        next.playerCardCodes = codes(hand.getPlayerHole(), hand.getPlayerHole().size());
+        // Always the real codes; the view shows the backs until dealerCardsFaceUp
+        next.dealerCardCodes = codes(hand.getDealerHole(), hand.getDealerHole().size());
+        next.revealedCount = hand.getRevealedCount();
+        next.boardCardCodes = codes(hand.getBoard(), hand.getRevealedCount());
+    }
+
+    /**
+     * Codes of the first {@code shown} cards; the rest are "" placeholders.
+     */
+    private static List<String> codes(List<Card> cards, int shown) {
+        List<String> codes = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++)
+            codes.add(i < shown ? cards.get(i).getCode() : "");
+        return Collections.unmodifiableList(codes);
+    }
+}
@@ -0,0 +1,255 @@
+package com.appsters.simpleGames.games.poker;
+
+import com.appsters.simpleGames.games.poker.model.Card;
+import com.appsters.simpleGames.games.poker.model.LookupHandEvaluator;
+import com.appsters.simpleGames.games.poker.model.Outs;
+import com.appsters.simpleGames.games.poker.model.PokerEquityEngine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the poker screen shows, as one immutable snapshot. {@link PokerViewModel}
+ * publishes a new snapshot once per state transition (built by {@link PokerUiReducer}),
+ * so the screen rebinds once per action and never shows a half-updated hand.
+ *
+ * Display text that follows from other fields (pot, winnings, odds, outs, button labels) is
+ * derived in getters rather than stored.
+ */
+public final class PokerUiState {
+
+    public enum Phase {
+        LOBBY, IN_HAND, SHOWDOWN
+    }
+
+    public enum HandStage {
+        PREFLOP, FLOP, TURN, RIVER, SHOWDOWN
+    }
+
+    public static final PokerUiState INITIAL = new Builder().build();
+
+    /**
+     * An AI opponent at a multi-seat table.
+     */
+    public static final class Seat {
+        public final String name;
+        public final int stack;
+        public final List<String> cardCodes;
+        public final boolean faceUp;
+        // What the seat did on the current street, e.g. "Raise +10"
+        public final String action;
+        public final boolean winner;
+
+        Seat(String name, int stack, List<String> cardCodes, boolean faceUp, String action, boolean winner) {
+            this.name = name;
+            this.stack = stack;
+            this.cardCodes = cardCodes;
+            this.faceUp = faceUp;
+            this.action = action;
+            this.winner = winner;
+        }
+    }
+
+    public final int coins;
+    public final boolean freeAvailable;
+    public final String freeTimerText;
+    public final int selectedBuyIn;
+    // 2 for heads-up against the dealer, 3-6 for a table
+    public final int seatCount;
+
+    public final Phase phase;
+    public final HandStage handStage;
+    public final String status;
+
+    // Card codes (see Card#getCode). Board cards not yet revealed are "".
+    public final List<String> playerCardCodes;
+    public final List<String> dealerCardCodes;
+    public final List<String> boardCardCodes;
+    public final boolean dealerCardsFaceUp;
+    public final int revealedCount;
+    public final boolean revealEnabled;
+    // Opponents at a table, in seat order; empty heads-up
+    public final List<Seat> opponents;
+
+    // Pot as the player's payout if they win, and what they have put in so far
+    public final int payoutIfWin;
+    public final int playerContribution;
+
+    public final boolean bettingEnabled;
+    // Buy-in of the hand in play (the selection may already differ for the next one)
+    public final int handBuyIn;
+    // Raise slider: 1..raiseMax additional chips for the current street
+    public final int raiseMax;
+    public final int raiseAmount;
+
+    // Live odds for the player, null while none are known
+    public final PokerEquityEngine.Equity equity;
+    public final boolean oddsPending;
+
+    // The player's outs on the flop or turn, null while none are known
+    public final Outs outs;
+    public final boolean outsPending;
+
+    private PokerUiState(Builder b) {
+        coins = b.coins;
+        freeAvailable = b.freeAvailable;
+        freeTimerText = b.freeTimerText;
+        selectedBuyIn = b.selectedBuyIn;
+        seatCount = b.seatCount;
+        phase = b.phase;
+        handStage = b.handStage;
+        status = b.status;
+        playerCardCodes = b.playerCardCodes;
+        dealerCardCodes = b.dealerCardCodes;
+        boardCardCodes = b.boardCardCodes;
+        dealerCardsFaceUp = b.dealerCardsFaceUp;
+        revealedCount = b.revealedCount;
+        revealEnabled = b.revealEnabled;
+        opponents = b.opponents;
+        payoutIfWin = b.payoutIfWin;
+        playerContribution = b.playerContribution;
+        bettingEnabled = b.bettingEnabled;
+        handBuyIn = b.handBuyIn;
+        raiseMax = b.raiseMax;
+        raiseAmount = b.raiseAmount;
+        equity = b.equity;
+        oddsPending = b.oddsPending;
+        outs = b.outs;
+        outsPending = b.outsPending;
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public boolean isTable() {
+        return seatCount > 2;
+    }
+
+    public boolean isRaiseEnabled() {
+        return bettingEnabled && coins >= 1;
+    }
+
+    public String getRaiseAmountText() {
+        return "Raise add: " + raiseAmount;
+    }
+
+    public String getPotTotalText() {
+        return String.valueOf(payoutIfWin);
+    }
+
+    public String getWinningsText() {
+        int netIfWin = Math.max(0, payoutIfWin - playerContribution);
+        return "winnings: " + netIfWin + " (Net Profit)";
+    }
+
+    public String getRevealButtonText() {
+        if (revealedCount == 0)
+            return "Reveal Flop";
+        if (revealedCount == 3)
+            return "Reveal Turn";
+        if (revealedCount == 4)
+            return "Reveal River";
+        return "Showdown";
+    }
+
+    public String getOddsText() {
+        if (equity != null)
+            return String.format("Odds%s: win %.1f%%  tie %.1f%%  lose %.1f%%",
+                    equity.exact ? " (exact)" : "", equity.win * 100, equity.tie * 100, equity.loss * 100);
+        return oddsPending ? "Odds: calculating..." : "";
+    }
+
+    /**
+     * E.g. "Outs to improve your One Pair: 5 (Two Pair: A♣ A♦ A♥ · Three of a Kind: 7♣ 7♦)".
+     */
+    public String getOutsText() {
+        if (outs == null)
+            return outsPending ? "Outs: counting..." : "";
+        String current = LookupHandEvaluator.nameOfCategory(outs.category);
+        if (outs.count() == 0)
+            return "Outs: no card improves your " + current;
+
+        StringBuilder text = new StringBuilder("Outs to improve your ").append(current).append(": ")
+                .append(outs.count()).append(" (");
+        int group = -1;
+        for (int i = 0; i < outs.count(); i++) {
+            int category = outs.improvedCategory(i);
+            if (category != group) {
+                if (group >= 0)
+                    text.append(" · ");
+                text.append(LookupHandEvaluator.nameOfCategory(category)).append(':');
+                group = category;
+            }
+            Card card = outs.getCards().get(i);
+            text.append(' ').append(card);
+        }
+        return text.append(')').toString();
+    }
+
+    /**
+     * Mutable copy used by {@link PokerUiReducer} to build the next snapshot.
+     */
+    static final class Builder {
+        int coins = 0;
+        boolean freeAvailable = false;
+        String freeTimerText = "";
+        int selectedBuyIn = 5;
+        int seatCount = 2;
+        Phase phase = Phase.LOBBY;
+        HandStage handStage = HandStage.PREFLOP;
+        String status = "";
+        List<String> playerCardCodes = Collections.emptyList();
+        List<String> dealerCardCodes = Collections.emptyList();
+        List<String> boardCardCodes = Collections.emptyList();
+        boolean dealerCardsFaceUp = false;
+        int revealedCount = 0;
+        boolean revealEnabled = false;
+        List<Seat> opponents = Collections.emptyList();
+        int payoutIfWin = 0;
+        int playerContribution = 0;
+        boolean bettingEnabled = false;
+        int handBuyIn = 5;
+        int raiseMax = 1;
+        int raiseAmount = 1;
+        PokerEquityEngine.Equity equity;
+        boolean oddsPending = false;
+        Outs outs;
+        boolean outsPending = false;
+
+        Builder() {
+        }
+
+        Builder(PokerUiState s) {
+            coins = s.coins;
+            freeAvailable = s.freeAvailable;
+            freeTimerText = s.freeTimerText;
+            selectedBuyIn = s.selectedBuyIn;
+            seatCount = s.seatCount;
+            phase = s.phase;
+            handStage = s.handStage;
+            status = s.status;
+            playerCardCodes = s.playerCardCodes;
+            dealerCardCodes = s.dealerCardCodes;
+            boardCardCodes = s.boardCardCodes;
+            dealerCardsFaceUp = s.dealerCardsFaceUp;
+            revealedCount = s.revealedCount;
+            revealEnabled = s.revealEnabled;
+            opponents = s.opponents;
+            payoutIfWin = s.payoutIfWin;
+            playerContribution = s.playerContribution;
+            bettingEnabled = s.bettingEnabled;
+            handBuyIn = s.handBuyIn;
+            raiseMax = s.raiseMax;
+            raiseAmount = s.raiseAmount;
+            equity = s.equity;
+            oddsPending = s.oddsPending;
+            outs = s.outs;
+            outsPending = s.outsPending;
+        }
+
+        PokerUiState build() {
+            return new PokerUiState(this);
+        }
+    }
+}
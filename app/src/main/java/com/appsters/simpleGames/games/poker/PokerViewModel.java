@@ -2,6 +2,9 @@ package com.appsters.simpleGames.games.poker;
 
 import android.app.Application;
 import android.os.CountDownTimer;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -14,14 +17,27 @@ import com.appsters.simpleGames.app.data.repository.LeaderboardRepository;
 import com.appsters.simpleGames.app.data.repository.UserRepository;
 import com.appsters.simpleGames.app.util.GameType;
 import com.appsters.simpleGames.games.poker.model.Card;
-import com.appsters.simpleGames.games.poker.model.Deck;
-import com.appsters.simpleGames.games.poker.model.HandEvaluator;
+import com.appsters.simpleGames.games.poker.model.DealerStrategy;
+import com.appsters.simpleGames.games.poker.model.EquityDealerStrategy;
+import com.appsters.simpleGames.games.poker.model.HandRecord;
+import com.appsters.simpleGames.games.poker.model.LookupHandEvaluator;
+import com.appsters.simpleGames.games.poker.model.Outs;
+import com.appsters.simpleGames.games.poker.model.PokerEquityEngine;
+import com.appsters.simpleGames.games.poker.model.PokerHand;
+import com.appsters.simpleGames.games.poker.model.PokerTable;
+import com.appsters.simpleGames.games.poker.model.PreflopEquityTable;
+import com.appsters.simpleGames.games.poker.model.TableAi;
+import com.appsters.simpleGames.games.poker.repo.HandHistoryRepository;
 import com.appsters.simpleGames.games.poker.repo.RandPokerRepository;
 import com.google.firebase.auth.FirebaseAuth;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
 
 /**
  * A lightweight Texas Hold'em single-hand experience.
@@ -29,19 +45,17 @@ import java.util.Random;
  * Design choices (kept simple on purpose):
  * - One betting interaction per hand (player acts, dealer responds).
  * - No folds (as requested). If a raise happens, the other side auto-calls.
- * - Dealer "skill" increases with buy-in amount (5 / 50 / 500).
+ * - Dealer "skill" increases with buy-in amount (5 / 50 / 500): each tier gets a larger
+ *   compute budget for its equity-based decisions (see {@link EquityDealerStrategy}).
+ * - With 3-6 seats the player joins a {@link PokerTable} of AI opponents instead; their
+ *   decisions and the showdown run on a {@link TableAi} pool, never on the main thread.
  */
 public class PokerViewModel extends AndroidViewModel {
 
-    public enum Phase {
-        LOBBY, IN_HAND, SHOWDOWN
-    }
-
-    public enum HandStage {
-        PREFLOP, FLOP, TURN, RIVER, SHOWDOWN
-    }
+    private static final String TAG = "PokerViewModel";
 
     private final RandPokerRepository repository;
+    private final HandHistoryRepository handHistoryRepository;
     private final LeaderboardRepository leaderboardRepository;
     private final UserRepository userRepository;
 
@@ -51,112 +65,96 @@ public class PokerViewModel extends AndroidViewModel {
 
     private final Random random = new Random();
 
-    private final MutableLiveData<Integer> _coins = new MutableLiveData<>(0);
-    public LiveData<Integer> coins = _coins;
-
-    private final MutableLiveData<Boolean> _freeAvailable = new MutableLiveData<>(false);
-    public LiveData<Boolean> freeAvailable = _freeAvailable;
-
-    private final MutableLiveData<String> _freeTimerText = new MutableLiveData<>("");
-    public LiveData<String> freeTimerText = _freeTimerText;
-
-    private final MutableLiveData<Integer> _selectedBuyIn = new MutableLiveData<>(5);
-    public LiveData<Integer> selectedBuyIn = _selectedBuyIn;
-
-    private final MutableLiveData<Phase> _phase = new MutableLiveData<>(Phase.LOBBY);
-    public LiveData<Phase> phase = _phase;
-
-    private final MutableLiveData<HandStage> _handStage = new MutableLiveData<>(HandStage.PREFLOP);
-    public LiveData<HandStage> handStage = _handStage;
-
-    private final MutableLiveData<Boolean> _revealEnabled = new MutableLiveData<>(false);
-    public LiveData<Boolean> revealEnabled = _revealEnabled;
-
-    private final MutableLiveData<String> _revealButtonText = new MutableLiveData<>("Reveal Flop");
-    public LiveData<String> revealButtonText = _revealButtonText;
-
-    private final MutableLiveData<String> _status = new MutableLiveData<>("");
-    public LiveData<String> status = _status;
-
-    private final MutableLiveData<String> _playerCardsText = new MutableLiveData<>("");
-    public LiveData<String> playerCardsText = _playerCardsText;
-
-    private final MutableLiveData<String> _dealerCardsText = new MutableLiveData<>("");
-    public LiveData<String> dealerCardsText = _dealerCardsText;
-
-    private final MutableLiveData<String> _boardCardsText = new MutableLiveData<>("");
-    public LiveData<String> boardCardsText = _boardCardsText;
-
-    private final MutableLiveData<String> _potTotalText = new MutableLiveData<>("0");
-    public LiveData<String> potTotalText = _potTotalText;
-
-    private final MutableLiveData<String> _winningsText = new MutableLiveData<>("winnings: 0 ");
-    public LiveData<String> winningsText = _winningsText;
-
-    private final MutableLiveData<Boolean> _bettingEnabled = new MutableLiveData<>(false);
-    public LiveData<Boolean> bettingEnabled = _bettingEnabled;
-
-    private final MutableLiveData<Boolean> _raiseEnabled = new MutableLiveData<>(false);
-    public LiveData<Boolean> raiseEnabled = _raiseEnabled;
-
-    // Raise amount slider (additional chips to put in on a raise for the current
-    // street)
-    private final MutableLiveData<Integer> _raiseMax = new MutableLiveData<>(1); // absolute max raise amount
-    public LiveData<Integer> raiseMax = _raiseMax;
-
-    private final MutableLiveData<Integer> _raiseAmount = new MutableLiveData<>(1); // current chosen raise amount
-    public LiveData<Integer> raiseAmount = _raiseAmount;
-
-    private final MutableLiveData<String> _raiseAmountText = new MutableLiveData<>("Raise add: 1");
-    public LiveData<String> raiseAmountText = _raiseAmountText;
+    // The whole screen as one snapshot, replaced once per state transition
+    private final MutableLiveData<PokerUiState> _uiState = new MutableLiveData<>(PokerUiState.INITIAL);
+    public LiveData<PokerUiState> uiState = _uiState;
+
+    private static final PokerEquityEngine.Budget LIVE_ODDS_BUDGET = new PokerEquityEngine.Budget(200_000, 750,
+            0.005);
+
+    private final PokerEquityEngine equityEngine = new PokerEquityEngine();
+    private PokerEquityEngine.Job equityJob;
+    // Bumped whenever odds are restarted or stopped so late results are dropped
+    private int oddsRequest = 0;
+
+    // Heads-up equity of every starting hand, read from assets once per process.
+    // Null if the asset could not be read (pre-flop odds are then simulated).
+    private static PreflopEquityTable preflopTable;
+    private static boolean preflopTableLoaded = false;
+
+    // Dealer decisions run here so the equity search never blocks the UI
+    private final ExecutorService dealerExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private DealerStrategy dealerStrategy;
+    private boolean dealerThinking = false;
+    // Bumped per hand so decisions for an abandoned hand are dropped
+    private int handNumber = 0;
+
+    // The player's outs for the next street. The whole board is dealt up front, so they
+    // are counted while the current street is bet and are ready when it is revealed.
+    private Outs preparedOuts;
+
+    // Leaderboard submissions are coalesced: at most one per hand end, or one per
+    // interval for coin changes outside a hand.
+    private static final long LEADERBOARD_SUBMIT_INTERVAL_MS = 30_000;
+    private final Runnable leaderboardFlush = this::flushCoinsToLeaderboard;
+    private boolean leaderboardFlushScheduled = false;
+    private String submittedUserId;
+    private int submittedCoins = -1;
+    private String cachedUsernameUserId;
+    private String cachedUsername;
 
     private CountDownTimer freeTimer;
 
-    // Expose card lists for UI binding
-    private final MutableLiveData<List<String>> _playerCardUrls = new MutableLiveData<>(new ArrayList<>());
-    public LiveData<List<String>> playerCardUrls = _playerCardUrls;
-
-    private final MutableLiveData<List<String>> _dealerCardUrls = new MutableLiveData<>(new ArrayList<>());
-    public LiveData<List<String>> dealerCardUrls = _dealerCardUrls;
-
-    private final MutableLiveData<List<String>> _boardCardUrls = new MutableLiveData<>(new ArrayList<>());
-    public LiveData<List<String>> boardCardUrls = _boardCardUrls;
-
-    private final MutableLiveData<Boolean> _dealerCardsFaceUp = new MutableLiveData<>(false);
-    public LiveData<Boolean> dealerCardsFaceUp = _dealerCardsFaceUp;
-
-    // Current hand state
-    private int buyIn = 5;
-    private int multiplier = 2; // 2x, 3x, 5x
+    // The player's coins as seen by the hand rules. Coins move through applyCoinDelta so
+    // the leaderboard stays in sync; the balance shown is taken from the repository when
+    // the transition is published.
+    private final PokerHand.Wallet wallet = new PokerHand.Wallet() {
+        @Override
+        public int getCoins() {
+            return repository.getCoins();
+        }
 
-    // Betting/pot state
-    private int playerContribution = 0;
-    private int potTotal = 0;
+        @Override
+        public void addCoins(int delta) {
+            applyCoinDelta(delta);
+        }
+    };
 
-    // Street progression
-    private HandStage currentStreet = HandStage.PREFLOP;
-    private boolean awaitingBet = true;
-    private int revealedCount = 0; // 0, 3, 4, 5
+    // Current heads-up hand: deck, cards, pot and payout rules
+    private final PokerHand hand = new PokerHand(wallet);
 
-    private List<Card> playerHole = new ArrayList<>();
-    private List<Card> dealerHole = new ArrayList<>();
-    private List<Card> board = new ArrayList<>();
+    // Current multi-seat table, kept between hands so AI stacks carry over; replaced when
+    // the seat count changes. The AI pool is created with the first table.
+    private PokerTable table;
+    private TableAi tableAi;
+    private DealerStrategy tableStrategy;
 
     public PokerViewModel(@NonNull Application application) {
         super(application);
         repository = new RandPokerRepository(application);
+        handHistoryRepository = new HandHistoryRepository(application);
         leaderboardRepository = new LeaderboardRepository(application);
         userRepository = new UserRepository();
+        loadPreflopTable(application);
 
         if (!isSignedIn()) {
-            _status.setValue("Sign in to play Poker and earn coins.");
-            _freeTimerText.setValue("Sign in required for free coins");
-            _freeAvailable.setValue(false);
+            publish(PokerUiReducer.message(PokerUiReducer.signedOut(state()), "Sign in to play Poker and earn coins."));
             return;
         }
 
-        refreshCoins();
-        startOrRefreshFreeCoinsTimer();
+        publish(startOrRefreshFreeCoinsTimer(withRepositoryCoins(state())));
+    }
+
+    private static synchronized void loadPreflopTable(Application application) {
+        if (preflopTableLoaded)
+            return;
+        preflopTableLoaded = true;
+        try (InputStream in = application.getAssets().open(PreflopEquityTable.ASSET_NAME)) {
+            preflopTable = PreflopEquityTable.read(in);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not load preflop equity table", e);
+        }
     }
 
     @Override
@@ -164,30 +162,53 @@ public class PokerViewModel extends AndroidViewModel {
         super.onCleared();
         if (freeTimer != null)
             freeTimer.cancel();
+        stopLiveOdds();
+        handNumber++; // drop any dealer decision still in flight
+        dealerExecutor.shutdownNow();
+        if (tableAi != null)
+            tableAi.shutdown();
+        flushCoinsToLeaderboard();
+        handHistoryRepository.flush();
+        mainHandler.removeCallbacksAndMessages(null);
+        equityEngine.shutdown();
+    }
+
+    private PokerUiState state() {
+        return _uiState.getValue();
+    }
+
+    private void publish(PokerUiState next) {
+        _uiState.setValue(next);
     }
 
     public void refreshCoins() {
-        if (!isSignedIn()) {
-            _coins.setValue(0);
-            _freeAvailable.setValue(false);
-            _freeTimerText.setValue("Sign in required for free coins");
-            return;
-        }
+        publish(withRepositoryCoins(state()));
+    }
+
+    private PokerUiState withRepositoryCoins(PokerUiState state) {
+        if (!isSignedIn())
+            return PokerUiReducer.signedOut(state);
         repository.ensureInitialized();
-        _coins.setValue(repository.getCoins());
-        _freeAvailable.setValue(repository.canClaimFreeCoins());
-
-        // If we're in a hand, keep slider/raise state consistent with refreshed coin
-        // balance.
-        if (_phase.getValue() == Phase.IN_HAND) {
-            updateRaiseSlider();
-            updateRaiseEnabled();
-            updatePotAndWinnings();
-        }
+        return PokerUiReducer.coinsRefreshed(state, repository.getCoins(), repository.canClaimFreeCoins());
+    }
+
+    /**
+     * Seed of the current (or last) hand. Starting a {@link PokerHand} with it reproduces
+     * the same cards.
+     */
+    public long getHandSeed() {
+        return hand.getSeed();
     }
 
     public void selectBuyIn(int amount) {
-        _selectedBuyIn.setValue(amount);
+        publish(PokerUiReducer.buyInSelected(state(), amount));
+    }
+
+    /**
+     * 2 plays the dealer heads-up; 3-6 sits at a table with AI opponents.
+     */
+    public void selectSeats(int seats) {
+        publish(PokerUiReducer.seatsSelected(state(), seats));
     }
 
     /**
@@ -195,530 +216,369 @@ public class PokerViewModel extends AndroidViewModel {
      * 1..raiseMax.
      */
     public void setRaiseSliderProgress(int progress) {
-        Integer max = _raiseMax.getValue();
-        if (max == null)
-            max = 1;
-        int amount = Math.max(1, Math.min(max, progress + 1));
-        _raiseAmount.setValue(amount);
-        _raiseAmountText.setValue("Raise add: " + amount);
-        updateRaiseEnabled();
-        updatePotAndWinnings();
+        publish(PokerUiReducer.raiseSliderMoved(state(), progress));
     }
 
     public void claimFreeCoins() {
         boolean granted = repository.claimFreeCoins();
+        PokerUiState next;
         if (granted) {
-            refreshCoins();
-            submitCoinsToLeaderboard();
-            _status.setValue("Claimed +10 coins.");
+            next = PokerUiReducer.message(withRepositoryCoins(state()), "Claimed +10 coins.");
+            flushCoinsToLeaderboard();
         } else {
-            _status.setValue("Free coins aren't ready yet.");
+            next = PokerUiReducer.message(state(), "Free coins aren't ready yet.");
         }
-        startOrRefreshFreeCoinsTimer();
+        publish(startOrRefreshFreeCoinsTimer(next));
     }
 
     public void startHand() {
-        Integer c = _coins.getValue();
-        Integer sel = _selectedBuyIn.getValue();
-        if (c == null)
-            c = 0;
-        if (sel == null)
-            sel = 5;
-
-        if (c < sel * 2) {
-            _status.setValue("You need at least " + (sel * 2) + " coins to buy in for " + sel + ".");
+        PokerUiState state = state();
+        int sel = state.selectedBuyIn;
+        if (!PokerHand.canAffordBuyIn(state.coins, sel)) {
+            publish(PokerUiReducer.message(state,
+                    "You need at least " + (sel * 2) + " coins to buy in for " + sel + "."));
             return;
         }
 
-        buyIn = sel;
-        multiplier = (buyIn == 5) ? 2 : (buyIn == 50 ? 3 : 5);
-        buyIn = sel;
-        multiplier = (buyIn == 5) ? 2 : (buyIn == 50 ? 3 : 5);
+        handNumber++;
+        dealerThinking = false;
+        if (state.isTable()) {
+            startTableHand(state);
+            return;
+        }
 
         // Buy-in immediately goes into the pot and is deducted from your coin total.
-        applyCoinDelta(-buyIn);
-        playerContribution = buyIn;
-        potTotal = buyIn * 2;
-
-        currentStreet = HandStage.PREFLOP;
-        awaitingBet = true;
-        revealedCount = 0;
-        Deck deck = new Deck();
-        deck.shuffle(random);
-
-        playerHole = new ArrayList<>();
-        dealerHole = new ArrayList<>();
-        board = new ArrayList<>();
-
-        playerHole.add(deck.draw());
-        dealerHole.add(deck.draw());
-        playerHole.add(deck.draw());
-        dealerHole.add(deck.draw());
-
-        // Community cards (flop/turn/river) - we deal all now but reveal as one string
-        // for simplicity
-        for (int i = 0; i < 5; i++)
-            board.add(deck.draw());
-
-        updateUiCards(); // New method to update card lists
-
-        _dealerCardsFaceUp.setValue(false); // Hide dealer cards initially
-
-        _playerCardsText.setValue(cardListToString(playerHole));
-        _dealerCardsText.setValue("🂠 🂠"); // hidden until showdown
-        _handStage.setValue(HandStage.PREFLOP);
-        _revealEnabled.setValue(false);
-        _revealButtonText.setValue("Reveal Flop");
-        _boardCardsText.setValue(boardToStringRevealed(0));
-        _bettingEnabled.setValue(true);
-        updatePotAndWinnings();
-        updateRaiseSlider();
-        updateRaiseEnabled();
-        _status.setValue("New hand (pre-flop). Your move: check or raise.");
-        _phase.setValue(Phase.IN_HAND);
+        hand.start(sel, random.nextLong());
+        prepareOuts(hand.getPlayerHoleMask(), hand.getBoard(), 0);
+
+        dealerStrategy = EquityDealerStrategy.forBuyIn(equityEngine, preflopTable, sel);
+
+        publish(startLiveOdds(PokerUiReducer.handStarted(state, hand, repository.getCoins())));
     }
 
     public void playerCheck() {
-        if (_phase.getValue() != Phase.IN_HAND)
+        if (!canAct())
             return;
-        if (!Boolean.TRUE.equals(_bettingEnabled.getValue()))
+        if (state().isTable()) {
+            tableAct(0);
             return;
-
-        // Dealer responds to a check on this street.
-        int dealerRaise = dealerDecideRaiseAmount(/* playerRaised= */false, /* playerAggression= */0);
-
-        // Keep it safe: dealer cannot raise more than the player can currently afford
-        // to call.
-        Integer c = _coins.getValue();
-        if (c == null)
-            c = repository.getCoins();
-        int remaining = c;
-        if (dealerRaise > remaining)
-            dealerRaise = 0;
-
-        if (dealerRaise > 0) {
-            // Player auto-calls (no fold). Both contribute dealerRaise.
-            applyCoinDelta(-dealerRaise); // you pay to call immediately
-            potTotal += dealerRaise * 2;
-            playerContribution += dealerRaise;
-            _status.setValue(streetName(currentStreet) + ": You check. Dealer raises +" + dealerRaise + ". You call.");
-        } else {
-            _status.setValue(streetName(currentStreet) + ": You check. Dealer checks.");
         }
 
-        finishBettingForStreet(/* playerRaised= */false);
+        publish(PokerUiReducer.playerChecked(state(), hand));
+
+        // Dealer responds to a check on this street.
+        requestDealerRaise(/* playerRaised= */false, decision -> {
+            // Player auto-calls (no fold); a raise they can't afford becomes a check.
+            int dealerRaise = hand.dealerRaise(decision);
+            finishBettingForStreet(/* playerRaised= */false, dealerRaise);
+        });
     }
 
     public void playerRaise() {
-        if (_phase.getValue() != Phase.IN_HAND)
-            return;
-        if (!Boolean.TRUE.equals(_bettingEnabled.getValue()))
+        if (!canAct())
             return;
 
-        Integer ra = _raiseAmount.getValue();
-        int raise = (ra == null ? buyIn : ra);
+        int raise = state().raiseAmount;
 
         // Ensure player has enough coins to cover this street's raise.
-        Integer c = _coins.getValue();
-        if (c == null)
-            c = repository.getCoins();
-        int remaining = c;
-        if (remaining < raise) {
-            _status.setValue("Not enough coins to raise right now.");
-            updateRaiseEnabled();
+        boolean table = state().isTable();
+        if (!(table ? this.table.canRaise(raise) : hand.canRaise(raise))) {
+            publish(PokerUiReducer.message(state(), "Not enough coins to raise right now."));
             return;
         }
-
-        // Player raises; dealer auto-calls (no fold). Both contribute 'raise'.
-        applyCoinDelta(-raise); // you pay the raise immediately
-        potTotal += raise * 2;
-        playerContribution += raise;
-
-        int dealerRaise = dealerDecideRaiseAmount(/* playerRaised= */true, /* playerAggression= */1);
-        if (dealerRaise > 0) {
-            // Dealer raises once; player auto-calls.
-            // (Still cap to one extra raise per street to keep bankroll reasonable.)
-            if (repository.getCoins() < dealerRaise) {
-                // Can't safely cover the extra; dealer just calls instead.
-                dealerRaise = 0;
-            } else {
-                applyCoinDelta(-dealerRaise); // you pay to call the dealer's raise
-                potTotal += dealerRaise * 2;
-                playerContribution += dealerRaise;
-            }
-        }
-
-        if (dealerRaise > 0) {
-            _status.setValue(streetName(currentStreet) + ": You raise +" + raise + ". Dealer raises +" + dealerRaise
-                    + ". You call.");
-        } else {
-            _status.setValue(streetName(currentStreet) + ": You raise +" + raise + ". Dealer calls.");
+        if (table) {
+            tableAct(raise);
+            return;
         }
 
-        finishBettingForStreet(/* playerRaised= */true);
-    }
-
-    private String streetName(HandStage stage) {
-        switch (stage) {
-            case PREFLOP:
-                return "Pre-flop";
-            case FLOP:
-                return "Flop";
-            case TURN:
-                return "Turn";
-            case RIVER:
-                return "River";
-            default:
-                return "";
-        }
+        // Player raises; dealer auto-calls (no fold). Both contribute 'raise'.
+        hand.playerRaise(raise); // you pay the raise immediately
+        publish(PokerUiReducer.playerRaised(state(), hand, repository.getCoins(), raise));
+
+        requestDealerRaise(/* playerRaised= */true, decision -> {
+            // Dealer raises once; player auto-calls. If the player can't cover the extra,
+            // the dealer just calls instead.
+            int dealerRaise = hand.dealerRaise(decision);
+            finishBettingForStreet(/* playerRaised= */true, dealerRaise);
+        });
     }
 
-    private String nextRevealButtonText() {
-        if (revealedCount == 0)
-            return "Reveal Flop";
-        if (revealedCount == 3)
-            return "Reveal Turn";
-        if (revealedCount == 4)
-            return "Reveal River";
-        return "Showdown";
+    private boolean canAct() {
+        PokerUiState state = state();
+        return state.phase == PokerUiState.Phase.IN_HAND && state.bettingEnabled && !dealerThinking;
     }
 
-    private void updatePotAndWinnings() {
-        // We always keep the pot balanced (dealer auto-calls), so the player's "win
-        // payout"
-        // can be computed from the total pot using the buy-in multiplier.
-        int payoutIfWin = (potTotal * multiplier) / 2; // matches (playerContribution * multiplier)
-        _potTotalText.setValue(String.valueOf(payoutIfWin));
-
-        int netIfWin = Math.max(0, payoutIfWin - playerContribution);
-        _winningsText.setValue("winnings: " + netIfWin + " (Net Profit)");
+    /**
+     * Asks the dealer strategy for its raise on a background thread, then hands the
+     * result to onDecision on the main thread. Betting is already disabled by the
+     * player's action.
+     */
+    private void requestDealerRaise(boolean playerRaised, IntConsumer onDecision) {
+        DealerStrategy.Context context = hand.dealerContext(playerRaised);
+
+        DealerStrategy strategy = dealerStrategy;
+        int handId = handNumber;
+        dealerThinking = true;
+        dealerExecutor.execute(() -> {
+            int raise = strategy.decideRaise(context);
+            mainHandler.post(() -> {
+                if (handId != handNumber)
+                    return;
+                dealerThinking = false;
+                onDecision.accept(raise);
+            });
+        });
     }
 
-    private void updateRaiseSlider() {
-        // Slider only matters when actively betting on a street.
-        boolean enabled = Boolean.TRUE.equals(_bettingEnabled.getValue());
-        if (!enabled) {
-            _raiseMax.setValue(1);
-            _raiseAmount.setValue(1);
-            _raiseAmountText.setValue("Raise add: 1");
+    private void finishBettingForStreet(boolean playerRaised, int dealerRaise) {
+        PokerUiState next = PokerUiReducer.dealerActed(state(), hand, repository.getCoins(), playerRaised,
+                dealerRaise);
+        if (hand.isRiver()) {
+            publish(showdownAndPayout(next));
             return;
         }
-
-        Integer c = _coins.getValue();
-        if (c == null)
-            c = repository.getCoins();
-        int remaining = Math.max(0, c);
-
-        // Absolute max: you can never raise more than you can currently afford.
-        int maxRaise = Math.max(1, remaining);
-
-        _raiseMax.setValue(maxRaise);
-
-        Integer current = _raiseAmount.getValue();
-        if (current == null)
-            current = 1;
-
-        // Default the slider toward buyIn-sized raises when possible.
-        if (current <= 1 && maxRaise >= buyIn)
-            current = buyIn;
-
-        int clamped = Math.max(1, Math.min(maxRaise, current));
-        _raiseAmount.setValue(clamped);
-        _raiseAmountText.setValue("Raise add: " + clamped);
+        publish(next);
     }
 
-    private void updateRaiseEnabled() {
-        boolean enabled = Boolean.TRUE.equals(_bettingEnabled.getValue());
-        if (!enabled) {
-            _raiseEnabled.setValue(false);
-            return;
-        }
-        Integer c = _coins.getValue();
-        if (c == null)
-            c = repository.getCoins();
-        int remaining = c;
-        _raiseEnabled.setValue(remaining >= 1);
-    }
-
-    private void finishBettingForStreet(boolean playerRaised) {
-        _bettingEnabled.setValue(false);
-        updateRaiseSlider();
-        updateRaiseEnabled();
-        updatePotAndWinnings();
-
-        if (currentStreet == HandStage.RIVER) {
-            _revealEnabled.setValue(false);
-            showdownAndPayout();
-            return;
-        }
-
-        _revealEnabled.setValue(true);
-        _revealButtonText.setValue(nextRevealButtonText());
+    private PokerUiState showdownAndPayout(PokerUiState state) {
+        stopLiveOdds();
 
-        String prompt;
-        if (revealedCount == 0)
-            prompt = " Tap to reveal the flop.";
-        else if (revealedCount == 3)
-            prompt = " Tap to reveal the turn.";
-        else
-            prompt = " Tap to reveal the river.";
+        // Coins are deducted as you bet (buy-in + calls/raises). The showdown only
+        // ADDS winnings/refunds.
+        PokerHand.Showdown result = hand.showdown();
+        String userId = FirebaseAuth.getInstance().getUid();
+        if (userId != null)
+            handHistoryRepository.append(userId, HandRecord.of(hand, result, System.currentTimeMillis()));
+        flushCoinsToLeaderboard();
 
-        String s = _status.getValue();
-        if (s == null)
-            s = "";
-        _status.setValue(s + prompt);
+        return PokerUiReducer.showdown(state, hand, repository.getCoins(), result);
     }
 
-    private void showdownAndPayout() {
-        _phase.setValue(Phase.SHOWDOWN);
-
-        List<Card> playerSeven = new ArrayList<>();
-        playerSeven.addAll(playerHole);
-        playerSeven.addAll(board);
-
-        List<Card> dealerSeven = new ArrayList<>();
-        dealerSeven.addAll(dealerHole);
-        dealerSeven.addAll(board);
-
-        HandEvaluator.Result p = HandEvaluator.bestOfSeven(playerSeven);
-        HandEvaluator.Result d = HandEvaluator.bestOfSeven(dealerSeven);
-
-        _dealerCardsFaceUp.setValue(true); // Reveal dealer cards
-        updateUiCards();
-
-        _dealerCardsText.setValue(cardListToString(dealerHole));
-
-        int delta;
-        String resultText;
+    private void startTableHand(PokerUiState state) {
+        if (table == null || table.getSeats() != state.seatCount)
+            table = new PokerTable(wallet, state.seatCount);
+        if (tableAi == null)
+            tableAi = new TableAi();
+        tableAi.cancelPending();
+        tableStrategy = EquityDealerStrategy.forBuyIn(equityEngine, preflopTable, state.selectedBuyIn);
+        stopLiveOdds();
+
+        table.start(state.selectedBuyIn, random.nextLong());
+        prepareOuts(table.getHoleMask(PokerTable.PLAYER), table.getBoard(), 0);
+        publish(PokerUiReducer.tableHandStarted(state, table, repository.getCoins()));
+    }
 
-        // Coins are deducted as you bet (buy-in + calls/raises). At showdown we only
-        // ADD winnings/refunds.
-        if (p.value > d.value) {
-            int payoutIfWin = (potTotal * multiplier) / 2; // equals (playerContribution * multiplier) since pot is
-                                                           // balanced
-            delta = payoutIfWin;
-            resultText = "You win! (" + p.categoryName + " beats " + d.categoryName + ") +" + delta;
-        } else if (p.value < d.value) {
-            delta = 0;
-            resultText = "Dealer wins. (" + d.categoryName + " beats " + p.categoryName + ") +" + delta;
-        } else {
-            // Tie: return your contribution (no multiplier on ties)
-            delta = playerContribution;
-            resultText = "Tie. (" + p.categoryName + ") +" + delta;
-        }
+    /**
+     * The player checks (0) or raises at a table. Every AI seat then decides at once in
+     * the background; the street is played out when the last one is done.
+     */
+    private void tableAct(int raise) {
+        publish(PokerUiReducer.tablePlayerActed(state(), table, raise));
+
+        int handId = handNumber;
+        dealerThinking = true;
+        tableAi.decideAll(table, tableStrategy, raise, raises -> mainHandler.post(() -> {
+            if (handId != handNumber)
+                return;
+            dealerThinking = false;
+            table.bet(raise, raises);
+            PokerUiState next = PokerUiReducer.tableBettingDone(state(), table, repository.getCoins());
+            publish(next);
+            if (table.isRiver())
+                tableShowdown();
+        }));
+    }
 
-        applyCoinDelta(delta);
-        _status.setValue(resultText + " coins. Tap Start Hand to play again.");
+    /**
+     * Evaluates the river off the main thread, then pays out. Actions stay blocked until
+     * the result is in.
+     */
+    private void tableShowdown() {
+        int handId = handNumber;
+        dealerThinking = true;
+        tableAi.evaluate(table, showdown -> mainHandler.post(() -> {
+            if (handId != handNumber)
+                return;
+            dealerThinking = false;
+            table.settle(showdown);
+            flushCoinsToLeaderboard();
+            publish(PokerUiReducer.tableShowdown(state(), table, repository.getCoins(), showdown));
+        }));
     }
 
     private void applyCoinDelta(int delta) {
-        int current = repository.getCoins();
-        int next = Math.max(0, current + delta);
-        repository.setCoins(next);
-        _coins.setValue(next);
-        submitCoinsToLeaderboard();
-        updateRaiseEnabled();
+        repository.addCoins(delta);
+        scheduleLeaderboardFlush();
+    }
+
+    private void scheduleLeaderboardFlush() {
+        if (leaderboardFlushScheduled)
+            return;
+        leaderboardFlushScheduled = true;
+        mainHandler.postDelayed(leaderboardFlush, LEADERBOARD_SUBMIT_INTERVAL_MS);
     }
 
-    private void submitCoinsToLeaderboard() {
+    /**
+     * Submits the current balance now, unless it was already submitted. The username is
+     * looked up once per user and reused.
+     */
+    private void flushCoinsToLeaderboard() {
+        mainHandler.removeCallbacks(leaderboardFlush);
+        leaderboardFlushScheduled = false;
+
         String userId = FirebaseAuth.getInstance().getUid();
         if (userId == null)
             return;
 
         int score = repository.getCoins();
+        if (userId.equals(submittedUserId) && score == submittedCoins)
+            return;
 
+        if (userId.equals(cachedUsernameUserId)) {
+            submitCoins(userId, cachedUsername, score);
+            return;
+        }
         userRepository.getUser(userId, userTask -> {
             if (userTask.isSuccessful()) {
                 User user = userTask.getResult();
-                String username = (user != null && user.getUsername() != null) ? user.getUsername() : "Unknown";
-                Score scoreObject = new Score(null, userId, username, GameType.POKER, score);
-                leaderboardRepository.submitScore(scoreObject, (isSuccessful, result, e) -> {
-                    // no-op
-                });
+                cachedUsernameUserId = userId;
+                cachedUsername = (user != null && user.getUsername() != null) ? user.getUsername() : "Unknown";
+                submitCoins(userId, cachedUsername, score);
             }
         });
     }
 
-    /**
-     * Dealer logic:
-     * - Buy-in 5: random / sloppy.
-     * - Buy-in 50: uses its hole cards strength.
-     * - Buy-in 500: uses hole cards + player aggression.
-     */
-    private int dealerDecideRaiseAmount(boolean playerRaised, int playerAggression) {
-        // raise amount is always buyIn (keeps math + UX simple)
-        int raiseAmount = buyIn;
-
-        if (buyIn == 5) {
-            // 35% chance to raise regardless
-            return random.nextInt(100) < 35 ? raiseAmount : 0;
-        }
+    private void submitCoins(String userId, String username, int score) {
+        Score scoreObject = new Score(null, userId, username, GameType.POKER, score);
+        leaderboardRepository.submitScore(scoreObject, (isSuccessful, result, e) -> {
+            // Only a stored balance counts as submitted; after a failure the next flush
+            // sends it again.
+            if (isSuccessful) {
+                submittedUserId = userId;
+                submittedCoins = score;
+            }
+        });
+    }
 
-        // Evaluate rough preflop strength from dealer hole cards.
-        double strength = preflopStrength(dealerHole);
+    public void revealNext() {
+        PokerUiState state = state();
+        if (state.phase != PokerUiState.Phase.IN_HAND || !state.revealEnabled)
+            return;
 
-        if (buyIn == 50) {
-            // Raise if decent
-            return (strength >= 0.58) ? raiseAmount : 0;
+        if (state.isTable()) {
+            if (!table.isRiver()) {
+                table.revealNext();
+                publish(withOuts(PokerUiReducer.tableStreetRevealed(state, table),
+                        table.getHoleMask(PokerTable.PLAYER), table.getBoard(), table.getRevealedBoardMask(),
+                        table.getRevealedCount()));
+            }
+            return;
         }
 
-        // buyIn == 500: incorporate player aggression
-        if (playerRaised) {
-            // Player showed aggression; require stronger hand to raise back
-            if (strength >= 0.70)
-                return raiseAmount;
-            return 0;
-        } else {
-            // Player checked; dealer can press with moderate hands
-            return (strength >= 0.55) ? raiseAmount : 0;
-        }
+        if (hand.isRiver())
+            return;
+
+        // Reveal next set of community cards, then allow betting on that street.
+        hand.revealNext();
+        PokerUiState next = withOuts(PokerUiReducer.streetRevealed(state, hand), hand.getPlayerHoleMask(),
+                hand.getBoard(), hand.getRevealedBoardMask(), hand.getRevealedCount());
+        publish(startLiveOdds(next));
     }
 
     /**
-     * Very simple preflop strength heuristic [0..1].
+     * Counts the player's outs for the street after {@code revealedCount} in the
+     * background. The count runs on the dealer thread, queued ahead of any dealer decision
+     * on this street, so it is normally done before the next reveal is allowed.
+     *
+     * @param board all 5 board cards, revealed or not
      */
-    private double preflopStrength(List<Card> hole) {
-        if (hole == null || hole.size() != 2)
-            return 0.0;
-        Card a = hole.get(0);
-        Card b = hole.get(1);
-
-        int high = Math.max(a.rank, b.rank);
-        int low = Math.min(a.rank, b.rank);
-        boolean pair = a.rank == b.rank;
-        boolean suited = a.suit == b.suit;
-        int gap = high - low;
-
-        double s = 0.0;
-
-        // Base from high card
-        s += (high - 2) / 12.0 * 0.45; // up to ~0.45
-
-        if (pair)
-            s += 0.40;
-        if (suited)
-            s += 0.07;
-        if (gap == 1)
-            s += 0.05; // connectors
-        if (gap == 0)
-            s += 0.08; // already counted as pair, but add a bit
-        if (high >= 13 && low >= 10)
-            s += 0.10; // broadway-ish
-
-        // Clamp
-        if (s < 0)
-            s = 0;
-        if (s > 1)
-            s = 1;
-        return s;
-    }
-
-    private String cardListToString(List<Card> cards) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < cards.size(); i++) {
-            sb.append(cards.get(i).toString());
-            if (i != cards.size() - 1)
-                sb.append("  ");
-        }
-        return sb.toString();
+    private void prepareOuts(long holeMask, List<Card> board, int revealedCount) {
+        preparedOuts = null;
+        if (revealedCount >= 4)
+            return; // no outs on the river
+        long nextBoard = LookupHandEvaluator.maskOf(board.subList(0, revealedCount == 0 ? 3 : 4));
+        int handId = handNumber;
+        dealerExecutor.execute(() -> {
+            Outs outs = Outs.count(holeMask, nextBoard);
+            mainHandler.post(() -> {
+                if (handId != handNumber)
+                    return;
+                preparedOuts = outs;
+                // The street was revealed before the count finished
+                PokerUiState state = state();
+                if (state.outsPending && revealedBoardMask(state) == outs.boardMask)
+                    publish(PokerUiReducer.outsUpdated(state, outs));
+            });
+        });
     }
 
-    private String boardToStringRevealed(int revealedCount) {
-        // Show revealed community cards, hide the rest.
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < 5; i++) {
-            if (i < revealedCount && i < board.size()) {
-                sb.append(board.get(i).toString());
-            } else {
-                sb.append("??");
-            }
-            if (i != 4)
-                sb.append("  ");
-        }
-        return sb.toString();
-    }
-
-    private void updateUiCards() {
-        // Player cards (always visible)
-        List<String> pUrls = new ArrayList<>();
-        for (Card c : playerHole)
-            pUrls.add(c.getImageUrl());
-        _playerCardUrls.setValue(pUrls);
-
-        // Dealer cards (hidden unless faceUp)
-        List<String> dUrls = new ArrayList<>();
-        for (Card c : dealerHole)
-            dUrls.add(c.getImageUrl());
-        _dealerCardUrls.setValue(dUrls); // View will handle faceDown logic via separate LiveData
-
-        // Board cards (revealed based on count)
-        List<String> bUrls = new ArrayList<>();
-        for (int i = 0; i < 5; i++) {
-            if (i < revealedCount && i < board.size()) {
-                bUrls.add(board.get(i).getImageUrl());
-            } else {
-                bUrls.add(""); // Empty or null indicates not revealed/placeholder
-            }
-        }
-        _boardCardUrls.setValue(bUrls);
+    /**
+     * Adds the outs prepared for a street that was just revealed, and starts counting the
+     * next street's.
+     */
+    private PokerUiState withOuts(PokerUiState state, long holeMask, List<Card> board, long revealedBoard,
+            int revealedCount) {
+        Outs ready = preparedOuts;
+        prepareOuts(holeMask, board, revealedCount);
+        if (revealedCount == 5)
+            return state;
+        if (ready != null && ready.boardMask == revealedBoard)
+            return PokerUiReducer.outsUpdated(state, ready);
+        return PokerUiReducer.outsPending(state);
     }
 
-    public void revealNext() {
-        Phase p = _phase.getValue();
-        if (p == null || p != Phase.IN_HAND)
-            return;
-        if (!Boolean.TRUE.equals(_revealEnabled.getValue()))
-            return;
+    private long revealedBoardMask(PokerUiState state) {
+        return state.isTable() ? table.getRevealedBoardMask() : hand.getRevealedBoardMask();
+    }
 
-        // Reveal next set of community cards, then allow betting on that street.
-        if (revealedCount == 0) {
-            revealedCount = 3;
-            currentStreet = HandStage.FLOP;
-            _handStage.setValue(HandStage.FLOP);
-            _status.setValue("Flop revealed. Your move: check or raise.");
-        } else if (revealedCount == 3) {
-            revealedCount = 4;
-            currentStreet = HandStage.TURN;
-            _handStage.setValue(HandStage.TURN);
-            _status.setValue("Turn revealed. Your move: check or raise.");
-        } else if (revealedCount == 4) {
-            revealedCount = 5;
-            currentStreet = HandStage.RIVER;
-            _handStage.setValue(HandStage.RIVER);
-            _status.setValue("River revealed. Your move: check or raise.");
-        } else {
-            return;
+    /**
+     * (Re)starts the background odds estimate for the current street. Any estimate
+     * still running for the previous street is cancelled first.
+     *
+     * @return the state with the odds known, or marked as being calculated
+     */
+    private PokerUiState startLiveOdds(PokerUiState state) {
+        stopLiveOdds();
+        if (hand.getRevealedCount() == 0 && preflopTable != null) {
+            // Pre-flop odds are a table lookup; no need to simulate.
+            Card a = hand.getPlayerHole().get(0);
+            Card b = hand.getPlayerHole().get(1);
+            double win = preflopTable.win(a, b);
+            double tie = preflopTable.tie(a, b);
+            PokerEquityEngine.Equity e = new PokerEquityEngine.Equity(win, tie, Math.max(0, 1 - win - tie), 0, 0,
+                    false);
+            return PokerUiReducer.oddsUpdated(state, e);
         }
-
-        updateUiCards(); // Update board URLs
-        _boardCardsText.setValue(boardToStringRevealed(revealedCount)); // Legacy text update
-
-        _revealEnabled.setValue(false);
-        _revealButtonText.setValue(nextRevealButtonText());
-        _bettingEnabled.setValue(true);
-        updateRaiseSlider();
-        updateRaiseEnabled();
+        int request = oddsRequest;
+        equityJob = equityEngine.estimateAsync(hand.getPlayerHoleMask(), hand.getRevealedBoardMask(), null, LIVE_ODDS_BUDGET,
+                e -> mainHandler.post(() -> {
+                    if (request == oddsRequest)
+                        publish(PokerUiReducer.oddsUpdated(state(), e));
+                }));
+        return PokerUiReducer.oddsPending(state);
     }
 
-    private void startOrRefreshFreeCoinsTimer() {
-        if (!isSignedIn()) {
-            if (freeTimer != null)
-                freeTimer.cancel();
-            _freeAvailable.setValue(false);
-            _freeTimerText.setValue("Sign in required for free coins");
-            return;
+    private void stopLiveOdds() {
+        oddsRequest++;
+        if (equityJob != null) {
+            equityJob.cancel();
+            equityJob = null;
         }
+    }
+
+    /**
+     * @return the state with the free-coins button and countdown text set; the countdown
+     *         then publishes its own ticks
+     */
+    private PokerUiState startOrRefreshFreeCoinsTimer(PokerUiState state) {
         if (freeTimer != null)
             freeTimer.cancel();
+        if (!isSignedIn())
+            return PokerUiReducer.freeCoinsTimer(state, false, PokerUiReducer.SIGNED_OUT_FREE_TEXT);
 
         repository.ensureInitialized();
-        boolean available = repository.canClaimFreeCoins();
-        _freeAvailable.setValue(available);
-
-        if (available) {
-            _freeTimerText.setValue("Free +10 coins ready!");
-            return;
-        }
+        if (repository.canClaimFreeCoins())
+            return PokerUiReducer.freeCoinsTimer(state, true, PokerUiReducer.FREE_READY_TEXT);
 
         long nextAt = repository.getNextFreeCoinsAtMs();
         long now = System.currentTimeMillis();
@@ -727,15 +587,16 @@ public class PokerViewModel extends AndroidViewModel {
         freeTimer = new CountDownTimer(millisLeft, 1000) {
             @Override
             public void onTick(long ms) {
-                _freeTimerText.setValue("Next free coins in: " + formatMillis(ms));
+                publish(PokerUiReducer.freeCoinsTimer(state(), false, "Next free coins in: " + formatMillis(ms)));
             }
 
             @Override
             public void onFinish() {
-                refreshCoins();
-                _freeTimerText.setValue("Free +10 coins ready!");
+                publish(PokerUiReducer.freeCoinsTimer(withRepositoryCoins(state()), repository.canClaimFreeCoins(),
+                        PokerUiReducer.FREE_READY_TEXT));
             }
         }.start();
+        return PokerUiReducer.freeCoinsTimer(state, false, "Next free coins in: " + formatMillis(millisLeft));
     }
 
     private String formatMillis(long ms) {
@@ -3,14 +3,36 @@ package com.appsters.simpleGames.games.poker.model;
 public class Card {
     public final int rank; // 2..14 (14 = Ace)
     public final Suit suit;
+    public final int id; // 0..51, suit * 13 + (rank - 2)
 
     public enum Suit {
         CLUBS, DIAMONDS, HEARTS, SPADES
     }
 
-    public Card(int rank, Suit suit) {
+    // The 52 cards, indexed by id. Cards are interned, so identity comparison is safe.
+    private static final Card[] DECK = new Card[52];
+
+    static {
+        for (Suit s : Suit.values()) {
+            for (int r = 2; r <= 14; r++) {
+                Card card = new Card(r, s);
+                DECK[card.id] = card;
+            }
+        }
+    }
+
+    private Card(int rank, Suit suit) {
         this.rank = rank;
         this.suit = suit;
+        this.id = suit.ordinal() * 13 + (rank - 2);
+    }
+
+    public static Card of(int id) {
+        return DECK[id];
+    }
+
+    public static Card of(int rank, Suit suit) {
+        return DECK[suit.ordinal() * 13 + (rank - 2)];
     }
 
     public String rankToString() {
@@ -49,8 +71,17 @@ public class Card {
         return rankToString() + suitToString();
     }
 
-    public String getImageUrl() {
-        return "https://deckofcardsapi.com/static/img/" + getCode() + ".png";
+    /**
+     * Inverse of {@link #getCode()}; returns null if the code is not a card.
+     */
+    public static Card fromCode(String code) {
+        if (code == null || code.length() != 2)
+            return null;
+        int rank = "234567890JQKA".indexOf(code.charAt(0)) + 2;
+        int suit = "CDHS".indexOf(code.charAt(1));
+        if (rank < 2 || suit < 0)
+            return null;
+        return DECK[suit * 13 + (rank - 2)];
     }
 
     @Override
@@ -0,0 +1,53 @@
+package com.appsters.simpleGames.games.poker.model;
+
+/**
+ * Decides how much the dealer (or an AI seat at a {@link PokerTable}) raises after the
+ * player acts on a street.
+ *
+ * Implementations may block for their compute budget; callers run them off the main thread.
+ */
+public interface DealerStrategy {
+
+    /**
+     * Returns the dealer's raise in coins, or 0 to check/call.
+     */
+    int decideRaise(Context context);
+
+    /**
+     * Immutable snapshot of what the dealer knows when deciding. Card masks use the
+     * {@link LookupHandEvaluator} layout.
+     */
+    class Context {
+        public final long dealerHoleMask;
+        public final long boardMask;
+        // Whether the player raised on the current street (vs. checked).
+        public final boolean playerRaised;
+        // Revealed board mask at each of the player's raises this hand (0 = pre-flop).
+        public final long[] playerRaiseBoards;
+        // Base raise size (the buy-in).
+        public final int raiseUnit;
+        // Payout multiplier the player gets on a win.
+        public final int multiplier;
+        // Most the player can currently call.
+        public final int maxRaise;
+        // Seats that will call a raise: 1 heads-up, up to 5 at a full table.
+        public final int opponents;
+
+        public Context(long dealerHoleMask, long boardMask, boolean playerRaised, long[] playerRaiseBoards,
+                int raiseUnit, int multiplier, int maxRaise) {
+            this(dealerHoleMask, boardMask, playerRaised, playerRaiseBoards, raiseUnit, multiplier, maxRaise, 1);
+        }
+
+        public Context(long dealerHoleMask, long boardMask, boolean playerRaised, long[] playerRaiseBoards,
+                int raiseUnit, int multiplier, int maxRaise, int opponents) {
+            this.dealerHoleMask = dealerHoleMask;
+            this.boardMask = boardMask;
+            this.playerRaised = playerRaised;
+            this.playerRaiseBoards = playerRaiseBoards;
+            this.raiseUnit = raiseUnit;
+            this.multiplier = multiplier;
+            this.maxRaise = maxRaise;
+            this.opponents = opponents;
+        }
+    }
+}
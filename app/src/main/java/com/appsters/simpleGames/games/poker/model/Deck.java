@@ -1,29 +1,46 @@
 package com.appsters.simpleGames.games.poker.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * A 52-card deck of card ids (see {@link Card#id}) dealt by a partial Fisher-Yates shuffle:
+ * each draw swaps a random remaining card into place, so only the dealt prefix is ever
+ * shuffled. The whole deal is determined by the seed passed to {@link #shuffle(long)}, so
+ * any hand can be replayed from its seed.
+ */
 public class Deck {
-    private final List<Card> cards = new ArrayList<>();
+    private final int[] cards = new int[52];
+    private SplittableRandom random;
+    private long seed;
     private int index = 0;
 
     public Deck() {
-        for (Card.Suit s : Card.Suit.values()) {
-            for (int r = 2; r <= 14; r++) {
-                cards.add(new Card(r, s));
-            }
-        }
+        shuffle(0L);
     }
 
-    public void shuffle(Random random) {
-        Collections.shuffle(cards, random);
+    public void shuffle(long seed) {
+        // Always start from new-deck order so the seed alone fixes the deal.
+        for (int i = 0; i < cards.length; i++)
+            cards[i] = i;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
         index = 0;
     }
 
+    public long getSeed() {
+        return seed;
+    }
+
+    public int drawId() {
+        if (index >= cards.length) throw new IllegalStateException("Deck is empty");
+        int j = index + random.nextInt(cards.length - index);
+        int card = cards[j];
+        cards[j] = cards[index];
+        cards[index++] = card;
+        return card;
+    }
+
     public Card draw() {
-        if (index >= cards.size()) throw new IllegalStateException("Deck is empty");
-        return cards.get(index++);
+        return Card.of(drawId());
     }
 }
@@ -0,0 +1,149 @@
+package com.appsters.simpleGames.games.poker.model;
+
+/**
+ * Dealer that raises by expected value.
+ *
+ * It estimates its equity with {@link PokerEquityEngine} within a fixed compute budget,
+ * optionally against the player's likely range given their raises this hand, and weighs it
+ * against the payout rules: every coin the player puts in returns {@code multiplier} coins
+ * on a player win, nothing on a loss and itself on a tie. Smaller budgets give noisier
+ * estimates and therefore a weaker dealer. Pre-flop odds against a random hand are looked
+ * up in the {@link PreflopEquityTable} instead, so every tier plays them exactly.
+ */
+public class EquityDealerStrategy implements DealerStrategy {
+
+    // A pre-flop raise puts the player in roughly the top 40% of starting hands.
+    private static final double PREFLOP_RAISE_EQUITY = 0.52;
+
+    // Per-decision compute budgets by buy-in tier
+    private static final PokerEquityEngine.Budget BUDGET_5 = new PokerEquityEngine.Budget(400, 5, 0.05);
+    private static final PokerEquityEngine.Budget BUDGET_50 = new PokerEquityEngine.Budget(20_000, 40, 0.01);
+    private static final PokerEquityEngine.Budget BUDGET_500 = new PokerEquityEngine.Budget(200_000, 150, 0.004);
+
+    private final PokerEquityEngine engine;
+    private final PreflopEquityTable preflopTable;
+    private final PokerEquityEngine.Budget budget;
+    private final boolean modelPlayerRange;
+
+    /**
+     * @param preflopTable pre-flop odds, also used to narrow the player's range after a
+     *                     pre-flop raise; may be null
+     * @param modelPlayerRange false to treat the player's hand as random
+     */
+    public EquityDealerStrategy(PokerEquityEngine engine, PreflopEquityTable preflopTable,
+            PokerEquityEngine.Budget budget, boolean modelPlayerRange) {
+        this.engine = engine;
+        this.preflopTable = preflopTable;
+        this.budget = budget;
+        this.modelPlayerRange = modelPlayerRange;
+    }
+
+    /**
+     * The dealer for a buy-in tier: "skill" grows with the stakes (5 / 50 / 500).
+     */
+    public static EquityDealerStrategy forBuyIn(PokerEquityEngine engine, PreflopEquityTable preflopTable,
+            int buyIn) {
+        return new EquityDealerStrategy(engine, preflopTable, budgetForBuyIn(buyIn), modelsPlayerRange(buyIn));
+    }
+
+    public static PokerEquityEngine.Budget budgetForBuyIn(int buyIn) {
+        if (buyIn == 5) {
+            // Tiny sample budget: noisy, sloppy decisions.
+            return BUDGET_5;
+        }
+        if (buyIn == 50) {
+            // Solid equity estimate against any two cards.
+            return BUDGET_50;
+        }
+        return BUDGET_500;
+    }
+
+    /**
+     * Only the top tier also reads the player's raises to narrow their likely holdings.
+     */
+    public static boolean modelsPlayerRange(int buyIn) {
+        return buyIn != 5 && buyIn != 50;
+    }
+
+    @Override
+    public int decideRaise(Context context) {
+        if (context.opponents > 1)
+            return decideTableRaise(context);
+
+        PokerEquityEngine.OpponentRange range = modelPlayerRange && context.playerRaiseBoards.length > 0
+                ? playerRange(context.playerRaiseBoards)
+                : null;
+        PokerEquityEngine.Equity e = context.boardMask == 0 && range == null && preflopTable != null
+                ? preflopEquity(context.dealerHoleMask)
+                : engine.estimate(context.dealerHoleMask, context.boardMask, range, budget);
+
+        // Dealer's expected gain per coin raised (the player always calls).
+        double perCoin = e.win - (context.multiplier - 1) * e.loss;
+        if (perCoin <= 0)
+            return 0;
+
+        // Press harder only when the edge holds at the low end of the confidence interval.
+        double perCoinLow = perCoin - e.margin * context.multiplier;
+        int raise = perCoinLow > 0 ? 2 * context.raiseUnit : context.raiseUnit;
+        if (raise > context.maxRaise)
+            raise = context.raiseUnit;
+        return raise <= context.maxRaise ? raise : 0;
+    }
+
+    /**
+     * Heads-up odds of a starting hand against a random hand, from the table.
+     */
+    private PokerEquityEngine.Equity preflopEquity(long holeMask) {
+        Card first = Card.of(LookupHandEvaluator.cardId(Long.lowestOneBit(holeMask)));
+        Card second = Card.of(LookupHandEvaluator.cardId(Long.highestOneBit(holeMask)));
+        double win = preflopTable.win(first, second);
+        double tie = preflopTable.tie(first, second);
+        return new PokerEquityEngine.Equity(win, tie, 1 - win - tie, 0, 0, true);
+    }
+
+    /**
+     * At a table every opponent calls, so each coin raised returns {@code opponents + 1}
+     * coins when this seat beats all of them. Beating several random hands is approximated
+     * as beating one, independently, that many times.
+     */
+    private int decideTableRaise(Context context) {
+        PokerEquityEngine.Equity e = engine.estimate(context.dealerHoleMask, context.boardMask, null, budget);
+        int callers = context.opponents;
+        double perCoin = Math.pow(e.equity(), callers) * (callers + 1) - 1;
+        if (perCoin <= 0)
+            return 0;
+
+        double perCoinLow = Math.pow(Math.max(0, e.equity() - e.margin), callers) * (callers + 1) - 1;
+        int raise = perCoinLow > 0 ? 2 * context.raiseUnit : context.raiseUnit;
+        if (raise > context.maxRaise)
+            raise = context.raiseUnit;
+        return raise <= context.maxRaise ? raise : 0;
+    }
+
+    /**
+     * Hands consistent with the player's raises: a pre-flop raise needs a decent starting
+     * hand, a raise on a later street needs a hand that improves on that street's board.
+     */
+    private PokerEquityEngine.OpponentRange playerRange(long[] raiseBoards) {
+        long[] boards = raiseBoards.clone();
+        long[] boardValues = new long[boards.length];
+        for (int i = 0; i < boards.length; i++)
+            boardValues[i] = boards[i] == 0 ? 0 : LookupHandEvaluator.evaluate(boards[i]);
+
+        return (first, second) -> {
+            long hole = LookupHandEvaluator.cardBit(first) | LookupHandEvaluator.cardBit(second);
+            for (int i = 0; i < boards.length; i++) {
+                if (boards[i] == 0) {
+                    if (preflopTable != null
+                            && preflopTable.equity(Card.of(first), Card.of(second)) < PREFLOP_RAISE_EQUITY)
+                        return false;
+                } else {
+                    int category = LookupHandEvaluator.categoryOf(LookupHandEvaluator.evaluate(hole | boards[i]));
+                    if (category <= LookupHandEvaluator.categoryOf(boardValues[i]))
+                        return false;
+                }
+            }
+            return true;
+        };
+    }
+}
@@ -1,7 +1,6 @@
 package com.appsters.simpleGames.games.poker.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -9,7 +8,8 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Evaluates Texas Hold'em hands by enumerating all 5-card combinations from 7 cards.
+ * Evaluates Texas Hold'em hands. {@link #evaluateFive} scores a single 5-card hand;
+ * {@link #bestOfSeven} picks the best of 7 via {@link LookupHandEvaluator}.
  * Returns a comparable long where larger is better.
  *
  * Encoding:
@@ -39,30 +39,14 @@ public class HandEvaluator {
     private static final int FOUR_KIND = 7;
     private static final int STRAIGHT_FLUSH = 8;
 
+    /**
+     * Best 5-card hand out of 7. Delegates to {@link LookupHandEvaluator}, which yields the
+     * same packed value as enumerating all 21 five-card combinations with {@link #evaluateFive}.
+     */
     public static Result bestOfSeven(List<Card> seven) {
         if (seven.size() != 7) throw new IllegalArgumentException("Need 7 cards");
-        long best = Long.MIN_VALUE;
-        String bestName = "High Card";
-
-        int[] idx = new int[]{0,1,2,3,4};
-        // enumerate combinations of 5 from 7 (21 combos)
-        for (int a=0;a<3;a++){
-            for (int b=a+1;b<4;b++){
-                for (int c=b+1;c<5;c++){
-                    for (int d=c+1;d<6;d++){
-                        for (int e=d+1;e<7;e++){
-                            List<Card> five = Arrays.asList(seven.get(a), seven.get(b), seven.get(c), seven.get(d), seven.get(e));
-                            Result r = evaluateFive(five);
-                            if (r.value > best) {
-                                best = r.value;
-                                bestName = r.categoryName;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return new Result(best, bestName);
+        long value = LookupHandEvaluator.evaluate(LookupHandEvaluator.maskOf(seven));
+        return new Result(value, LookupHandEvaluator.categoryName(value));
     }
 
     public static Result evaluateFive(List<Card> five) {
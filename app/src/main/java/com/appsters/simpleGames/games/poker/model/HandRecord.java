@@ -0,0 +1,127 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * One finished hand as stored in the hand-history journal: everything needed to replay or
+ * audit it. Encoded as a fixed-width {@link #SIZE}-byte big-endian record:
+ *
+ * <pre>
+ *  0  long   timestamp (ms since epoch)
+ *  8  long   deck seed
+ * 16  int    buy-in
+ * 20  byte*4 player hole, dealer hole (card ids)
+ * 24  byte*5 board (card ids)
+ * 29  byte   result: 1 player won, 0 tie, -1 dealer won
+ * 30  short  reserved (0)
+ * 32  int*4  player raise per street (0 = check)
+ * 48  int*4  dealer raise per street (0 = check / call)
+ * 64  int    payout to the player
+ * 68  int    CRC32 of bytes 0..67
+ * </pre>
+ */
+public class HandRecord {
+
+    public static final int SIZE = 72;
+
+    public final long timestamp;
+    public final long seed;
+    public final int buyIn;
+    // Card ids: player hole 0-1, dealer hole 2-3
+    public final byte[] hole;
+    public final byte[] board;
+    public final int result;
+    public final int[] playerRaises;
+    public final int[] dealerRaises;
+    public final int payout;
+
+    public HandRecord(long timestamp, long seed, int buyIn, byte[] hole, byte[] board, int result,
+            int[] playerRaises, int[] dealerRaises, int payout) {
+        this.timestamp = timestamp;
+        this.seed = seed;
+        this.buyIn = buyIn;
+        this.hole = hole;
+        this.board = board;
+        this.result = result;
+        this.playerRaises = playerRaises;
+        this.dealerRaises = dealerRaises;
+        this.payout = payout;
+    }
+
+    /**
+     * Record of a hand that has just gone to showdown.
+     */
+    public static HandRecord of(PokerHand hand, PokerHand.Showdown showdown, long timestamp) {
+        byte[] hole = {
+                (byte) hand.getPlayerHole().get(0).id, (byte) hand.getPlayerHole().get(1).id,
+                (byte) hand.getDealerHole().get(0).id, (byte) hand.getDealerHole().get(1).id };
+        byte[] board = new byte[5];
+        for (int i = 0; i < 5; i++)
+            board[i] = (byte) hand.getBoard().get(i).id;
+        int[] playerRaises = new int[4];
+        int[] dealerRaises = new int[4];
+        for (int street = 0; street < 4; street++) {
+            playerRaises[street] = hand.getPlayerRaise(street);
+            dealerRaises[street] = hand.getDealerRaise(street);
+        }
+        int result = showdown.playerWins() ? 1 : (showdown.dealerWins() ? -1 : 0);
+        return new HandRecord(timestamp, hand.getSeed(), hand.getBuyIn(), hole, board, result, playerRaises,
+                dealerRaises, showdown.payout);
+    }
+
+    /**
+     * Everything the player put in: buy-in, raises and calls.
+     */
+    public int contribution() {
+        int total = buyIn;
+        for (int street = 0; street < 4; street++)
+            total += playerRaises[street] + dealerRaises[street];
+        return total;
+    }
+
+    /**
+     * Writes the record at the buffer's position and advances it by {@link #SIZE}.
+     */
+    public void writeTo(ByteBuffer out) {
+        int start = out.position();
+        out.putLong(timestamp).putLong(seed).putInt(buyIn).put(hole).put(board).put((byte) result).putShort((short) 0);
+        for (int raise : playerRaises)
+            out.putInt(raise);
+        for (int raise : dealerRaises)
+            out.putInt(raise);
+        out.putInt(payout);
+        out.putInt(checksum(out, start));
+    }
+
+    /**
+     * Reads the record at an absolute offset without moving the buffer's position.
+     *
+     * @return the record, or null if its checksum doesn't match
+     */
+    public static HandRecord readFrom(ByteBuffer in, int offset) {
+        if (in.getInt(offset + SIZE - 4) != checksum(in, offset))
+            return null;
+        byte[] hole = new byte[4];
+        for (int i = 0; i < 4; i++)
+            hole[i] = in.get(offset + 20 + i);
+        byte[] board = new byte[5];
+        for (int i = 0; i < 5; i++)
+            board[i] = in.get(offset + 24 + i);
+        int[] playerRaises = new int[4];
+        int[] dealerRaises = new int[4];
+        for (int street = 0; street < 4; street++) {
+            playerRaises[street] = in.getInt(offset + 32 + street * 4);
+            dealerRaises[street] = in.getInt(offset + 48 + street * 4);
+        }
+        return new HandRecord(in.getLong(offset), in.getLong(offset + 8), in.getInt(offset + 16), hole, board,
+                in.get(offset + 29), playerRaises, dealerRaises, in.getInt(offset + 64));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < SIZE - 4; i++)
+            crc.update(buffer.get(offset + i));
+        return (int) crc.getValue();
+    }
+}
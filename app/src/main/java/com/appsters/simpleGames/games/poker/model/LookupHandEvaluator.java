@@ -0,0 +1,241 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.List;
+
+/**
+ * Allocation-free Texas Hold'em evaluator over int-encoded cards.
+ *
+ * A hand is a 64-bit mask with one 16-bit lane per suit (bit = suit * 16 + rank - 2),
+ * so adding a card is a single OR. Evaluation splits the mask into four 13-bit suit
+ * masks and resolves the category with bit operations plus two 8192-entry tables
+ * (straight high card and top-five ranks of a rank mask).
+ *
+ * Values are identical to {@link HandEvaluator}'s packed encoding, so results from
+ * both evaluators can be compared directly. Supports up to 7 cards.
+ */
+public class LookupHandEvaluator {
+
+    public static final int HIGH_CARD = 0;
+    public static final int ONE_PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    private static final String[] CATEGORY_NAMES = {
+            "High Card", "One Pair", "Two Pair", "Three of a Kind", "Straight",
+            "Flush", "Full House", "Four of a Kind", "Straight Flush"
+    };
+
+    private static final int RANK_MASK = 0x1FFF;
+    private static final int TABLE_SIZE = 1 << 13;
+
+    // High rank (2..14) of the best straight contained in a rank mask, 0 if none.
+    private static final byte[] STRAIGHT_HIGH = new byte[TABLE_SIZE];
+    // Top five ranks of a rank mask packed as nibbles at shifts 24, 20, 16, 12, 8.
+    private static final int[] TOP_FIVE = new int[TABLE_SIZE];
+    private static final long[] CARD_BITS = new long[52];
+
+    static {
+        for (int mask = 0; mask < TABLE_SIZE; mask++) {
+            int shift = 24;
+            int packed = 0;
+            for (int r = 12; r >= 0 && shift >= 8; r--) {
+                if ((mask & (1 << r)) != 0) {
+                    packed |= (r + 2) << shift;
+                    shift -= 4;
+                }
+            }
+            TOP_FIVE[mask] = packed;
+
+            int high = 0;
+            for (int top = 12; top >= 4; top--) {
+                int run = 0x1F << (top - 4);
+                if ((mask & run) == run) {
+                    high = top + 2;
+                    break;
+                }
+            }
+            // Wheel: A-2-3-4-5
+            if (high == 0 && (mask & 0x100F) == 0x100F)
+                high = 5;
+            STRAIGHT_HIGH[mask] = (byte) high;
+        }
+        for (int id = 0; id < 52; id++) {
+            CARD_BITS[id] = 1L << ((id / 13) * 16 + (id % 13));
+        }
+    }
+
+    /**
+     * Returns the hand-mask bit for a card id (suit * 13 + rank - 2).
+     */
+    public static long cardBit(int id) {
+        return CARD_BITS[id];
+    }
+
+    /**
+     * Returns the card id of a single hand-mask bit; the inverse of {@link #cardBit}.
+     */
+    public static int cardId(long bit) {
+        int index = Long.numberOfTrailingZeros(bit);
+        return (index / 16) * 13 + index % 16;
+    }
+
+    public static long maskOf(List<Card> cards) {
+        long mask = 0L;
+        for (int i = 0; i < cards.size(); i++)
+            mask |= CARD_BITS[cards.get(i).id];
+        return mask;
+    }
+
+    public static long evaluateSeven(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+        return evaluate(CARD_BITS[c0] | CARD_BITS[c1] | CARD_BITS[c2] | CARD_BITS[c3]
+                | CARD_BITS[c4] | CARD_BITS[c5] | CARD_BITS[c6]);
+    }
+
+    /**
+     * Evaluates a hand mask of up to 7 distinct cards. Larger is better.
+     */
+    public static long evaluate(long hand) {
+        int c = (int) hand & RANK_MASK;
+        int d = (int) (hand >>> 16) & RANK_MASK;
+        int h = (int) (hand >>> 32) & RANK_MASK;
+        int s = (int) (hand >>> 48) & RANK_MASK;
+
+        // With at most 7 cards a flush rules out quads and full houses, so it can be
+        // resolved before looking at rank multiplicities.
+        int flushMask = Integer.bitCount(c) >= 5 ? c
+                : Integer.bitCount(d) >= 5 ? d
+                : Integer.bitCount(h) >= 5 ? h
+                : Integer.bitCount(s) >= 5 ? s : 0;
+        if (flushMask != 0)
+            return flush(flushMask);
+        return evaluateWithoutFlush(c, d, h, s);
+    }
+
+    /**
+     * Evaluates several hands that share one board, e.g. every seat at a showdown.
+     *
+     * @param holes hole-card masks, one per seat
+     * @return the value of each seat's best hand, in the same order
+     */
+    public static long[] evaluateAll(long board, long[] holes) {
+        Board prepared = new Board(board);
+        long[] values = new long[holes.length];
+        for (int i = 0; i < holes.length; i++)
+            values[i] = prepared.evaluate(holes[i]);
+        return values;
+    }
+
+    /**
+     * A board (up to 5 cards) prepared for evaluating many two-card holdings against it.
+     * Only a suit with at least three board cards can make a flush, and at most one suit
+     * qualifies, so that lane is found once and each evaluation checks just that lane.
+     */
+    public static final class Board {
+        private final long mask;
+        // Bit offset of the only suit lane that can hold a flush, or -1 if none can.
+        private final int flushShift;
+
+        public Board(long mask) {
+            this.mask = mask;
+            int shift = -1;
+            for (int lane = 0; lane < 64; lane += 16) {
+                if (Long.bitCount(mask & ((long) RANK_MASK << lane)) >= 3)
+                    shift = lane;
+            }
+            this.flushShift = shift;
+        }
+
+        /**
+         * Value of the board plus two hole cards (as a mask). Same result as
+         * {@link LookupHandEvaluator#evaluate(long)} on the combined mask.
+         */
+        public long evaluate(long hole) {
+            long hand = mask | hole;
+            if (flushShift >= 0) {
+                int suit = (int) (hand >>> flushShift) & RANK_MASK;
+                if (Integer.bitCount(suit) >= 5)
+                    return flush(suit);
+            }
+            return evaluateWithoutFlush((int) hand & RANK_MASK, (int) (hand >>> 16) & RANK_MASK,
+                    (int) (hand >>> 32) & RANK_MASK, (int) (hand >>> 48) & RANK_MASK);
+        }
+    }
+
+    private static long flush(int flushMask) {
+        int straightFlush = STRAIGHT_HIGH[flushMask];
+        if (straightFlush != 0)
+            return pack(STRAIGHT_FLUSH, straightFlush << 24);
+        return pack(FLUSH, TOP_FIVE[flushMask]);
+    }
+
+    /**
+     * Rank-multiplicity part of the evaluation, for hands known to hold no flush.
+     */
+    private static long evaluateWithoutFlush(int c, int d, int h, int s) {
+        int ranks = c | d | h | s;
+        int quads = c & d & h & s;
+        int atLeastThree = (c & d & h) | (c & d & s) | (c & h & s) | (d & h & s);
+        int atLeastTwo = (c & d) | (c & h) | (c & s) | (d & h) | (d & s) | (h & s);
+        int trips = atLeastThree & ~quads;
+        int pairs = atLeastTwo & ~atLeastThree;
+        int singles = ranks & ~atLeastTwo;
+
+        if (quads != 0) {
+            int quad = Integer.highestOneBit(quads);
+            return pack(FOUR_KIND, TOP_FIVE[quad] | (TOP_FIVE[ranks & ~quad] >>> 4) & 0xF00000);
+        }
+
+        if (trips != 0) {
+            int trip = Integer.highestOneBit(trips);
+            int pairCandidates = (trips & ~trip) | pairs;
+            if (pairCandidates != 0) {
+                int pair = Integer.highestOneBit(pairCandidates);
+                return pack(FULL_HOUSE, TOP_FIVE[trip] | TOP_FIVE[pair] >>> 4);
+            }
+        }
+
+        int straight = STRAIGHT_HIGH[ranks];
+        if (straight != 0)
+            return pack(STRAIGHT, straight << 24);
+
+        if (trips != 0)
+            return pack(THREE_KIND, TOP_FIVE[trips] | (TOP_FIVE[singles] >>> 4) & 0xFF0000);
+
+        if (Integer.bitCount(pairs) >= 2) {
+            int topTwo = TOP_FIVE[pairs] & 0xFF00000;
+            int high = Integer.highestOneBit(pairs);
+            int low = Integer.highestOneBit(pairs & ~high);
+            int kicker = (TOP_FIVE[ranks & ~(high | low)] >>> 8) & 0xF0000;
+            return pack(TWO_PAIR, topTwo | kicker);
+        }
+
+        if (pairs != 0)
+            return pack(ONE_PAIR, TOP_FIVE[pairs] | (TOP_FIVE[singles] >>> 4) & 0xFFF000);
+
+        return pack(HIGH_CARD, TOP_FIVE[ranks]);
+    }
+
+    public static int categoryOf(long value) {
+        return (int) (value >>> 28);
+    }
+
+    public static String categoryName(long value) {
+        return nameOfCategory(categoryOf(value));
+    }
+
+    /**
+     * Display name of a category constant, e.g. "Flush" for {@link #FLUSH}.
+     */
+    public static String nameOfCategory(int category) {
+        return CATEGORY_NAMES[category];
+    }
+
+    private static long pack(int category, int ranks) {
+        return ((long) category << 28) | (ranks & 0xFFFFFFFL);
+    }
+}
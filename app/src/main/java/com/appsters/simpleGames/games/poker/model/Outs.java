@@ -0,0 +1,87 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The player's outs on the flop or turn: the unseen cards (47 on the flop, 46 on the
+ * turn) that would lift their best hand to a higher category if dealt next. Opponents'
+ * hole cards count as unseen, since the player can't see them. No Android dependencies.
+ *
+ * Each candidate differs from the known cards by a single bit, so it is one
+ * {@link LookupHandEvaluator#evaluate(long)} of the known mask plus that bit; a street
+ * costs a few dozen lookups.
+ */
+public class Outs {
+
+    // Board the outs were counted against
+    public final long boardMask;
+    // Category of the player's best hand on that board (LookupHandEvaluator constants)
+    public final int category;
+    // Improving cards, grouped by the category they make (best first), by rank within each
+    private final List<Card> cards;
+    private final int[] improvedCategories;
+
+    private Outs(long boardMask, int category, List<Card> cards, int[] improvedCategories) {
+        this.boardMask = boardMask;
+        this.category = category;
+        this.cards = Collections.unmodifiableList(cards);
+        this.improvedCategories = improvedCategories;
+    }
+
+    /**
+     * Counts the outs for a two-card hole against a flop or turn board.
+     */
+    public static Outs count(long holeMask, long boardMask) {
+        int boardCards = Long.bitCount(boardMask);
+        if (boardCards != 3 && boardCards != 4)
+            throw new IllegalArgumentException("Outs are counted on the flop or turn, not " + boardCards + " cards");
+        long known = holeMask | boardMask;
+        int category = LookupHandEvaluator.categoryOf(LookupHandEvaluator.evaluate(known));
+
+        // Category each card would make, or -1 when it doesn't improve
+        int[] improved = new int[52];
+        int outs = 0;
+        for (int id = 0; id < 52; id++) {
+            long bit = LookupHandEvaluator.cardBit(id);
+            improved[id] = -1;
+            if ((known & bit) != 0)
+                continue;
+            int next = LookupHandEvaluator.categoryOf(LookupHandEvaluator.evaluate(known | bit));
+            if (next > category) {
+                improved[id] = next;
+                outs++;
+            }
+        }
+
+        List<Card> cards = new ArrayList<>(outs);
+        int[] categories = new int[outs];
+        for (int target = LookupHandEvaluator.STRAIGHT_FLUSH; target > category; target--) {
+            for (int rank = 0; rank < 13; rank++) {
+                for (int id = rank; id < 52; id += 13) {
+                    if (improved[id] == target) {
+                        categories[cards.size()] = target;
+                        cards.add(Card.of(id));
+                    }
+                }
+            }
+        }
+        return new Outs(boardMask, category, cards, categories);
+    }
+
+    public int count() {
+        return cards.size();
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    /**
+     * Category the i-th card of {@link #getCards()} would make.
+     */
+    public int improvedCategory(int i) {
+        return improvedCategories[i];
+    }
+}
@@ -0,0 +1,440 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Estimates heads-up win/tie/loss odds for a hole-card pair against one opponent.
+ *
+ * When every (opponent hand, board runout) pair fits in the sample budget - from the
+ * turn onward with the live-odds budget - the odds are enumerated exactly. Otherwise
+ * rollouts deal the opponent's cards and the unrevealed board at random and compare
+ * both hands with {@link LookupHandEvaluator}. Work is split across cores with
+ * fork/join and runs in rounds, so it can stop early once the 95% confidence
+ * interval is tight enough, when the sample or time budget is spent, or when the
+ * job is cancelled (e.g. the next street was revealed).
+ */
+public class PokerEquityEngine {
+
+    // Samples per round; the budget and confidence interval are checked between rounds.
+    private static final int ROUND_SAMPLES = 16384;
+    // Rollouts a single fork/join leaf runs before it stops splitting.
+    private static final int LEAF_SAMPLES = 2048;
+    // Never stop on the confidence interval before this many samples.
+    private static final int MIN_SAMPLES = 4096;
+    // Hand comparisons a single exact-enumeration leaf runs before it stops splitting.
+    private static final int LEAF_COMPARISONS = 16384;
+
+    public static class Equity {
+        public final double win;
+        public final double tie;
+        public final double loss;
+        public final long samples;
+        // Half-width of the 95% confidence interval of equity(); 0 when exact.
+        public final double margin;
+        public final boolean exact;
+
+        public Equity(double win, double tie, double loss, long samples, double margin, boolean exact) {
+            this.win = win;
+            this.tie = tie;
+            this.loss = loss;
+            this.samples = samples;
+            this.margin = margin;
+            this.exact = exact;
+        }
+
+        /**
+         * Share of the pot won on average (ties count half).
+         */
+        public double equity() {
+            return win + tie / 2;
+        }
+    }
+
+    /**
+     * Limits for one estimate. Whichever limit is hit first ends the run.
+     */
+    public static class Budget {
+        public final long maxSamples;
+        public final long maxMillis;
+        public final double targetMargin;
+
+        public Budget(long maxSamples, long maxMillis, double targetMargin) {
+            this.maxSamples = maxSamples;
+            this.maxMillis = maxMillis;
+            this.targetMargin = targetMargin;
+        }
+    }
+
+    /**
+     * Hole-card combinations the opponent may hold. Card ids are suit * 13 + rank - 2.
+     */
+    public interface OpponentRange {
+        boolean contains(int first, int second);
+    }
+
+    public interface Listener {
+        void onEquity(Equity equity);
+    }
+
+    /**
+     * Handle to a running estimate. Cancelled jobs stop within a few hundred rollouts
+     * and never report again.
+     */
+    public static class Job {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public PokerEquityEngine() {
+        // Leave one core for the UI thread.
+        pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Starts an estimate in the background. The listener is called from a worker thread
+     * after every round with the running result.
+     *
+     * @param range possible opponent holdings, or null for any two cards
+     */
+    public Job estimateAsync(List<Card> hole, List<Card> revealedBoard, OpponentRange range,
+            Budget budget, Listener listener) {
+        return estimateAsync(LookupHandEvaluator.maskOf(hole), LookupHandEvaluator.maskOf(revealedBoard), range,
+                budget, listener);
+    }
+
+    /**
+     * Same as {@link #estimateAsync(List, List, OpponentRange, Budget, Listener)} with the
+     * hole cards and revealed board given as hand masks, so callers can keep the board mask
+     * up to date as streets are revealed instead of rebuilding it.
+     */
+    public Job estimateAsync(long holeMask, long boardMask, OpponentRange range, Budget budget,
+            Listener listener) {
+        Job job = new Job();
+        Setup setup = new Setup(holeMask, boardMask, range);
+        pool.execute(() -> run(setup, budget, job, listener));
+        return job;
+    }
+
+    /**
+     * Runs an estimate on the calling thread (the rollouts still use the pool).
+     */
+    public Equity estimate(List<Card> hole, List<Card> revealedBoard, OpponentRange range, Budget budget) {
+        return estimate(LookupHandEvaluator.maskOf(hole), LookupHandEvaluator.maskOf(revealedBoard), range, budget);
+    }
+
+    public Equity estimate(long holeMask, long boardMask, OpponentRange range, Budget budget) {
+        return run(new Setup(holeMask, boardMask, range), budget, new Job(), null);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Equity run(Setup setup, Budget budget, Job job, Listener listener) {
+        if (setup.exactComparisons() <= budget.maxSamples)
+            return runExact(setup, job, listener);
+
+        long deadline = System.currentTimeMillis() + budget.maxMillis;
+        SplittableRandom random = new SplittableRandom();
+        long wins = 0, ties = 0, losses = 0;
+        Equity result = new Equity(0, 0, 0, 0, 1, false);
+
+        while (!job.isCancelled() && wins + ties + losses < budget.maxSamples) {
+            long samples = wins + ties + losses;
+            int batch = (int) Math.min(ROUND_SAMPLES, budget.maxSamples - samples);
+            RolloutTask task = new RolloutTask(setup, batch, random.split(), job.cancelled);
+            long[] counts = ForkJoinTask.inForkJoinPool() ? task.invoke() : pool.invoke(task);
+            wins += counts[0];
+            ties += counts[1];
+            losses += counts[2];
+
+            result = toEquity(wins, ties, losses);
+            if (job.isCancelled())
+                break;
+            if (listener != null)
+                listener.onEquity(result);
+            if (result.samples >= MIN_SAMPLES && result.margin <= budget.targetMargin)
+                break;
+            if (System.currentTimeMillis() >= deadline)
+                break;
+        }
+        return result;
+    }
+
+    private Equity runExact(Setup setup, Job job, Listener listener) {
+        long[] runouts = setup.runouts();
+        ExactTask task = new ExactTask(setup, runouts, setup.allOpponentCombos(), 0, runouts.length, job.cancelled);
+        long[] counts = ForkJoinTask.inForkJoinPool() ? task.invoke() : pool.invoke(task);
+
+        long n = counts[0] + counts[1] + counts[2];
+        Equity result = n == 0 ? new Equity(0, 0, 0, 0, 1, false)
+                : new Equity((double) counts[0] / n, (double) counts[1] / n, (double) counts[2] / n, n, 0, true);
+        if (listener != null && !job.isCancelled())
+            listener.onEquity(result);
+        return result;
+    }
+
+    private static Equity toEquity(long wins, long ties, long losses) {
+        long n = wins + ties + losses;
+        if (n == 0)
+            return new Equity(0, 0, 0, 0, 1, false);
+        double win = (double) wins / n;
+        double tie = (double) ties / n;
+        double loss = (double) losses / n;
+        // Each rollout scores 1, 0.5 or 0.
+        double mean = win + tie / 2;
+        double variance = Math.max(0, win + tie / 4 - mean * mean);
+        double margin = 1.96 * Math.sqrt(variance / n);
+        return new Equity(win, tie, loss, n, margin, false);
+    }
+
+    /**
+     * Known cards of one estimate, shared read-only by all rollout tasks.
+     */
+    private static class Setup {
+        final long holeMask;
+        final long heroMask;
+        final long boardMask;
+        final int missingBoard;
+        final int[] liveCards;
+        // Allowed opponent holdings as card masks, or null for any two live cards.
+        final long[] opponentCombos;
+
+        Setup(long holeMask, long boardMask, OpponentRange range) {
+            if (Long.bitCount(holeMask) != 2)
+                throw new IllegalArgumentException("Need 2 hole cards");
+            if (Long.bitCount(boardMask) > 5 || (holeMask & boardMask) != 0)
+                throw new IllegalArgumentException("Board has at most 5 cards, distinct from the hole cards");
+            this.holeMask = holeMask;
+            this.boardMask = boardMask;
+            heroMask = holeMask | boardMask;
+            missingBoard = 5 - Long.bitCount(boardMask);
+
+            liveCards = new int[52 - Long.bitCount(heroMask)];
+            int n = 0;
+            for (int id = 0; id < 52; id++) {
+                if ((heroMask & LookupHandEvaluator.cardBit(id)) == 0)
+                    liveCards[n++] = id;
+            }
+
+            opponentCombos = range == null ? null : combosInRange(range);
+        }
+
+        private long[] combosInRange(OpponentRange range) {
+            long[] combos = new long[liveCards.length * (liveCards.length - 1) / 2];
+            int count = 0;
+            for (int i = 0; i < liveCards.length; i++) {
+                for (int j = i + 1; j < liveCards.length; j++) {
+                    int a = liveCards[i];
+                    int b = liveCards[j];
+                    if (range == null || range.contains(a, b) || range.contains(b, a)) {
+                        combos[count++] = LookupHandEvaluator.cardBit(a) | LookupHandEvaluator.cardBit(b);
+                    }
+                }
+            }
+            if (count == 0)
+                return range == null ? combos : null; // Nothing left in range; treat the opponent as random.
+            if (count == combos.length)
+                return combos;
+            long[] trimmed = new long[count];
+            System.arraycopy(combos, 0, trimmed, 0, count);
+            return trimmed;
+        }
+
+        long[] allOpponentCombos() {
+            return opponentCombos != null ? opponentCombos : combosInRange(null);
+        }
+
+        /**
+         * Number of (opponent hand, runout) pairs an exact enumeration compares. Every such
+         * pair is equally likely, so counting outcomes over them gives the exact odds.
+         */
+        long exactComparisons() {
+            long combos = opponentCombos != null ? opponentCombos.length : choose(liveCards.length, 2);
+            return combos * choose(liveCards.length - 2, missingBoard);
+        }
+
+        /**
+         * All completions of the board from the live cards, as masks.
+         */
+        long[] runouts() {
+            long[] runouts = new long[(int) choose(liveCards.length, missingBoard)];
+            addRunouts(runouts, 0, 0, missingBoard, 0L);
+            return runouts;
+        }
+
+        private int addRunouts(long[] out, int count, int from, int need, long partial) {
+            if (need == 0) {
+                out[count] = partial;
+                return count + 1;
+            }
+            for (int i = from; i <= liveCards.length - need; i++) {
+                count = addRunouts(out, count, i + 1, need - 1, partial | LookupHandEvaluator.cardBit(liveCards[i]));
+            }
+            return count;
+        }
+
+        private static long choose(int n, int k) {
+            if (k < 0 || k > n)
+                return 0;
+            long result = 1;
+            for (int i = 1; i <= k; i++)
+                result = result * (n - k + i) / i;
+            return result;
+        }
+    }
+
+    /**
+     * Runs a batch of rollouts, splitting in halves down to LEAF_SAMPLES.
+     * Returns {wins, ties, losses} from the hero's point of view.
+     */
+    private static class RolloutTask extends RecursiveTask<long[]> {
+        private final Setup setup;
+        private final int samples;
+        private final SplittableRandom random;
+        private final AtomicBoolean cancelled;
+
+        RolloutTask(Setup setup, int samples, SplittableRandom random, AtomicBoolean cancelled) {
+            this.setup = setup;
+            this.samples = samples;
+            this.random = random;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (samples > LEAF_SAMPLES) {
+                int half = samples / 2;
+                RolloutTask left = new RolloutTask(setup, half, random.split(), cancelled);
+                RolloutTask right = new RolloutTask(setup, samples - half, random, cancelled);
+                left.fork();
+                long[] r = right.compute();
+                long[] l = left.join();
+                r[0] += l[0];
+                r[1] += l[1];
+                r[2] += l[2];
+                return r;
+            }
+            return rollouts();
+        }
+
+        private long[] rollouts() {
+            long[] counts = new long[3];
+            int[] deck = setup.liveCards.clone();
+            int n = deck.length;
+            long[] combos = setup.opponentCombos;
+
+            for (int i = 0; i < samples; i++) {
+                if ((i & 255) == 0 && cancelled.get())
+                    break;
+
+                // Partial Fisher-Yates: only the drawn prefix of the deck is shuffled.
+                int pos = 0;
+                long opponent;
+                if (combos != null) {
+                    opponent = combos[random.nextInt(combos.length)];
+                } else {
+                    opponent = drawAt(deck, pos++, n) | drawAt(deck, pos++, n);
+                }
+                long runout = 0L;
+                for (int need = setup.missingBoard; need > 0;) {
+                    long card = drawAt(deck, pos++, n);
+                    if ((card & opponent) != 0)
+                        continue;
+                    runout |= card;
+                    need--;
+                }
+
+                long hero = LookupHandEvaluator.evaluate(setup.heroMask | runout);
+                long villain = LookupHandEvaluator.evaluate(opponent | setup.boardMask | runout);
+                if (hero > villain)
+                    counts[0]++;
+                else if (hero == villain)
+                    counts[1]++;
+                else
+                    counts[2]++;
+            }
+            return counts;
+        }
+
+        private long drawAt(int[] deck, int pos, int n) {
+            int j = pos + random.nextInt(n - pos);
+            int card = deck[j];
+            deck[j] = deck[pos];
+            deck[pos] = card;
+            return LookupHandEvaluator.cardBit(card);
+        }
+    }
+
+    /**
+     * Enumerates runouts[from, to) against every opponent holding that doesn't collide
+     * with the runout. Each completed board is prepared once and the hero's hand is
+     * evaluated once per runout; only the opponent's hole cards change in the inner loop.
+     */
+    private static class ExactTask extends RecursiveTask<long[]> {
+        private final Setup setup;
+        private final long[] runouts;
+        private final long[] combos;
+        private final int from;
+        private final int to;
+        private final AtomicBoolean cancelled;
+
+        ExactTask(Setup setup, long[] runouts, long[] combos, int from, int to, AtomicBoolean cancelled) {
+            this.setup = setup;
+            this.runouts = runouts;
+            this.combos = combos;
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > 1 && (long) (to - from) * combos.length > LEAF_COMPARISONS) {
+                int mid = (from + to) >>> 1;
+                ExactTask left = new ExactTask(setup, runouts, combos, from, mid, cancelled);
+                ExactTask right = new ExactTask(setup, runouts, combos, mid, to, cancelled);
+                left.fork();
+                long[] r = right.compute();
+                long[] l = left.join();
+                r[0] += l[0];
+                r[1] += l[1];
+                r[2] += l[2];
+                return r;
+            }
+
+            long[] counts = new long[3];
+            for (int i = from; i < to && !cancelled.get(); i++) {
+                long runout = runouts[i];
+                LookupHandEvaluator.Board board = new LookupHandEvaluator.Board(setup.boardMask | runout);
+                long hero = board.evaluate(setup.holeMask);
+                for (long combo : combos) {
+                    if ((combo & runout) != 0)
+                        continue;
+                    long villain = board.evaluate(combo);
+                    if (hero > villain)
+                        counts[0]++;
+                    else if (hero == villain)
+                        counts[1]++;
+                    else
+                        counts[2]++;
+                }
+            }
+            return counts;
+        }
+    }
+}
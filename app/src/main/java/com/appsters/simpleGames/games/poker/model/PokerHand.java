@@ -0,0 +1,288 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dealing, betting and payout rules of one heads-up hand against the dealer, with no
+ * Android dependencies. PokerViewModel drives it for the table UI and the headless
+ * simulator drives it in bulk, so both always play by the same rules.
+ *
+ * Rules (kept simple on purpose):
+ * - The buy-in goes into the pot for both sides; the player pays theirs up front.
+ * - One betting interaction per street. No folds: a raise is always called.
+ * - The dealer raises at most once per street, and only if the player can afford to call.
+ * - A win pays the player's contribution times the tier multiplier (2x / 3x / 5x);
+ *   a tie refunds it; a loss pays nothing.
+ */
+public class PokerHand {
+
+    /**
+     * Where the player's coins live. Charges are negative deltas.
+     */
+    public interface Wallet {
+        int getCoins();
+
+        void addCoins(int delta);
+    }
+
+    public static class Showdown {
+        public final long playerValue;
+        public final long dealerValue;
+        // Coins paid back to the player (winnings or refund).
+        public final int payout;
+
+        public Showdown(long playerValue, long dealerValue, int payout) {
+            this.playerValue = playerValue;
+            this.dealerValue = dealerValue;
+            this.payout = payout;
+        }
+
+        public boolean playerWins() {
+            return playerValue > dealerValue;
+        }
+
+        public boolean dealerWins() {
+            return playerValue < dealerValue;
+        }
+
+        public String playerHandName() {
+            return LookupHandEvaluator.categoryName(playerValue);
+        }
+
+        public String dealerHandName() {
+            return LookupHandEvaluator.categoryName(dealerValue);
+        }
+    }
+
+    private final Wallet wallet;
+    // One deck for the lifetime of the table; each hand reshuffles it from its seed
+    private final Deck deck = new Deck();
+
+    private final List<Card> playerHole = new ArrayList<>(2);
+    private final List<Card> dealerHole = new ArrayList<>(2);
+    private final List<Card> board = new ArrayList<>(5);
+
+    private long seed;
+    private int buyIn = 5;
+    private int multiplier = 2; // 2x, 3x, 5x
+
+    // Betting/pot state
+    private int playerContribution = 0;
+    private int potTotal = 0;
+    private int revealedCount = 0; // 0, 3, 4, 5
+
+    // Hand masks (LookupHandEvaluator layout); the board mask grows as streets are revealed
+    private long playerHoleMask = 0L;
+    private long dealerHoleMask = 0L;
+    private long revealedBoardMask = 0L;
+
+    // Revealed board mask at each player raise this hand (0 = pre-flop); at most one per street
+    private final long[] playerRaiseBoards = new long[4];
+    private int playerRaiseCount = 0;
+
+    // Raises per street (pre-flop, flop, turn, river); 0 = check / call
+    private final int[] playerRaises = new int[4];
+    private final int[] dealerRaises = new int[4];
+
+    public PokerHand(Wallet wallet) {
+        this.wallet = wallet;
+    }
+
+    public static int multiplierFor(int buyIn) {
+        return (buyIn == 5) ? 2 : (buyIn == 50 ? 3 : 5);
+    }
+
+    /**
+     * The player needs twice the buy-in to sit down, so they can call at least one raise.
+     */
+    public static boolean canAffordBuyIn(int coins, int buyIn) {
+        return coins >= buyIn * 2;
+    }
+
+    /**
+     * Charges the buy-in and deals a new hand from the given seed. Dealing order is player,
+     * dealer, player, dealer, then all 5 board cards (revealed later).
+     */
+    public void start(int buyIn, long seed) {
+        this.buyIn = buyIn;
+        this.multiplier = multiplierFor(buyIn);
+        this.seed = seed;
+
+        // Buy-in immediately goes into the pot and is deducted from the player's coins.
+        wallet.addCoins(-buyIn);
+        playerContribution = buyIn;
+        potTotal = buyIn * 2;
+        revealedCount = 0;
+        playerRaiseCount = 0;
+        Arrays.fill(playerRaises, 0);
+        Arrays.fill(dealerRaises, 0);
+
+        deck.shuffle(seed);
+        playerHole.clear();
+        dealerHole.clear();
+        board.clear();
+
+        playerHole.add(deck.draw());
+        dealerHole.add(deck.draw());
+        playerHole.add(deck.draw());
+        dealerHole.add(deck.draw());
+        for (int i = 0; i < 5; i++)
+            board.add(deck.draw());
+
+        playerHoleMask = LookupHandEvaluator.maskOf(playerHole);
+        dealerHoleMask = LookupHandEvaluator.maskOf(dealerHole);
+        revealedBoardMask = 0L;
+    }
+
+    public boolean canRaise(int raise) {
+        return raise >= 1 && wallet.getCoins() >= raise;
+    }
+
+    /**
+     * Player raises; the dealer calls. Both sides put {@code raise} into the pot.
+     */
+    public void playerRaise(int raise) {
+        if (!canRaise(raise))
+            throw new IllegalArgumentException("Player can't afford a raise of " + raise);
+        wallet.addCoins(-raise);
+        potTotal += raise * 2;
+        playerContribution += raise;
+        playerRaiseBoards[playerRaiseCount++] = revealedBoardMask;
+        playerRaises[getStreet()] = raise;
+    }
+
+    /**
+     * Dealer raises; the player auto-calls. A raise the player can't cover becomes a call.
+     *
+     * @return the raise actually made (0 if the dealer just checked/called)
+     */
+    public int dealerRaise(int raise) {
+        if (raise <= 0 || raise > wallet.getCoins())
+            return 0;
+        wallet.addCoins(-raise);
+        potTotal += raise * 2;
+        playerContribution += raise;
+        dealerRaises[getStreet()] = raise;
+        return raise;
+    }
+
+    /**
+     * What the dealer knows when responding to the player's action on this street.
+     */
+    public DealerStrategy.Context dealerContext(boolean playerRaised) {
+        long[] raiseBoards = new long[playerRaiseCount];
+        System.arraycopy(playerRaiseBoards, 0, raiseBoards, 0, playerRaiseCount);
+        return new DealerStrategy.Context(dealerHoleMask, revealedBoardMask, playerRaised, raiseBoards, buyIn,
+                multiplier, wallet.getCoins());
+    }
+
+    public boolean isRiver() {
+        return revealedCount == 5;
+    }
+
+    /**
+     * Reveals the flop, turn or river.
+     *
+     * @return the number of board cards now revealed
+     */
+    public int revealNext() {
+        if (revealedCount == 5)
+            throw new IllegalStateException("Board is fully revealed");
+        int next = (revealedCount == 0) ? 3 : revealedCount + 1;
+        for (int i = revealedCount; i < next; i++)
+            revealedBoardMask |= LookupHandEvaluator.cardBit(board.get(i).id);
+        revealedCount = next;
+        return revealedCount;
+    }
+
+    /**
+     * Compares both hands on the full board and pays the player.
+     */
+    public Showdown showdown() {
+        long[] values = LookupHandEvaluator.evaluateAll(LookupHandEvaluator.maskOf(board),
+                new long[] { playerHoleMask, dealerHoleMask });
+        long p = values[0];
+        long d = values[1];
+
+        // Coins are deducted as the player bets, so the showdown only adds winnings/refunds.
+        int payout;
+        if (p > d)
+            payout = payoutIfWin();
+        else if (p < d)
+            payout = 0;
+        else
+            payout = playerContribution; // Tie: contribution back, no multiplier
+        wallet.addCoins(payout);
+        return new Showdown(p, d, payout);
+    }
+
+    /**
+     * The pot is always balanced (the other side calls), so a win pays
+     * playerContribution * multiplier.
+     */
+    public int payoutIfWin() {
+        return (potTotal * multiplier) / 2;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBuyIn() {
+        return buyIn;
+    }
+
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    public int getPlayerContribution() {
+        return playerContribution;
+    }
+
+    public int getPotTotal() {
+        return potTotal;
+    }
+
+    public int getRevealedCount() {
+        return revealedCount;
+    }
+
+    /**
+     * Current street: 0 = pre-flop, 1 = flop, 2 = turn, 3 = river.
+     */
+    public int getStreet() {
+        return revealedCount == 0 ? 0 : revealedCount - 2;
+    }
+
+    public int getPlayerRaise(int street) {
+        return playerRaises[street];
+    }
+
+    public int getDealerRaise(int street) {
+        return dealerRaises[street];
+    }
+
+    public List<Card> getPlayerHole() {
+        return Collections.unmodifiableList(playerHole);
+    }
+
+    public List<Card> getDealerHole() {
+        return Collections.unmodifiableList(dealerHole);
+    }
+
+    public List<Card> getBoard() {
+        return Collections.unmodifiableList(board);
+    }
+
+    public long getPlayerHoleMask() {
+        return playerHoleMask;
+    }
+
+    public long getRevealedBoardMask() {
+        return revealedBoardMask;
+    }
+}
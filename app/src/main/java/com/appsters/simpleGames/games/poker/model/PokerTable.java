@@ -0,0 +1,369 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dealing, betting, side pots and payouts of one hand at a 3-6 seat table: the player in
+ * seat {@link #PLAYER} and AI opponents in the other seats. No Android dependencies.
+ *
+ * Rules (the heads-up game's, extended to more seats):
+ * - Every seat antes the buy-in. The player's stack is their coins; AI seats sit down with
+ *   {@link #AI_STACK_BUYINS} buy-ins and are replaced by a fresh opponent when broke.
+ * - One betting interaction per street: the player checks or raises, then every AI seat
+ *   answers at once (each decides from the same snapshot, see {@link TableAi}). Raises
+ *   stack up in seat order and everyone calls the final amount. No folds.
+ * - A seat that can't cover a call goes all-in for what it has. Chips above an all-in
+ *   form side pots that only the seats who matched them can win.
+ * - Pots go to the best hand among their eligible seats (split on ties). No house
+ *   multiplier: a table pays out exactly what was put in.
+ */
+public class PokerTable {
+
+    public static final int MIN_SEATS = 3;
+    public static final int MAX_SEATS = 6;
+    public static final int PLAYER = 0;
+    public static final int AI_STACK_BUYINS = 20;
+
+    /**
+     * One main or side pot. Seat sets are bitmasks (bit i = seat i).
+     */
+    public static class Pot {
+        public final int amount;
+        public final int eligibleSeats;
+        public final int winningSeats;
+
+        Pot(int amount, int eligibleSeats, int winningSeats) {
+            this.amount = amount;
+            this.eligibleSeats = eligibleSeats;
+            this.winningSeats = winningSeats;
+        }
+    }
+
+    public static class Showdown {
+        // Hand value per seat (LookupHandEvaluator encoding)
+        public final long[] values;
+        // Main pot first, then side pots in order
+        public final List<Pot> pots;
+        // Chips each seat gets back
+        public final int[] payouts;
+
+        Showdown(long[] values, List<Pot> pots, int[] payouts) {
+            this.values = values;
+            this.pots = Collections.unmodifiableList(pots);
+            this.payouts = payouts;
+        }
+
+        public boolean isWinner(int seat) {
+            for (Pot pot : pots) {
+                if ((pot.winningSeats & (1 << seat)) != 0)
+                    return true;
+            }
+            return false;
+        }
+
+        public String handName(int seat) {
+            return LookupHandEvaluator.categoryName(values[seat]);
+        }
+    }
+
+    private final PokerHand.Wallet wallet;
+    private final int seats;
+    private final Deck deck = new Deck();
+
+    // AI chips by seat; index PLAYER is unused (the player's stack is the wallet)
+    private final int[] stacks;
+    // Everything each seat has put in this hand, and on the current street
+    private final int[] committed;
+    private final int[] streetCommitted;
+    // Raise each seat made on the current street (0 = check / call)
+    private final int[] streetRaises;
+    // Revealed board mask at each of the player's raises this hand (0 = pre-flop)
+    private final long[] playerRaiseBoards = new long[4];
+    private int playerRaiseCount = 0;
+
+    private final List<List<Card>> holes = new ArrayList<>();
+    private final long[] holeMasks;
+    private final List<Card> board = new ArrayList<>(5);
+
+    private long seed;
+    private int buyIn = 5;
+    private int revealedCount = 0; // 0, 3, 4, 5
+    private long revealedBoardMask = 0L;
+
+    public PokerTable(PokerHand.Wallet wallet, int seats) {
+        if (seats < MIN_SEATS || seats > MAX_SEATS)
+            throw new IllegalArgumentException("A table seats " + MIN_SEATS + "-" + MAX_SEATS + ", not " + seats);
+        this.wallet = wallet;
+        this.seats = seats;
+        stacks = new int[seats];
+        committed = new int[seats];
+        streetCommitted = new int[seats];
+        streetRaises = new int[seats];
+        holeMasks = new long[seats];
+        for (int seat = 0; seat < seats; seat++)
+            holes.add(new ArrayList<>(2));
+    }
+
+    /**
+     * Takes every seat's ante and deals a new hand from the given seed: two cards to each
+     * seat in turn starting with the player, then all 5 board cards (revealed later).
+     */
+    public void start(int buyIn, long seed) {
+        if (!PokerHand.canAffordBuyIn(wallet.getCoins(), buyIn))
+            throw new IllegalArgumentException("Player can't afford a buy-in of " + buyIn);
+        this.buyIn = buyIn;
+        this.seed = seed;
+
+        // Broke or under-stacked opponents (e.g. after a tier change) are replaced
+        for (int seat = 1; seat < seats; seat++) {
+            if (stacks[seat] < buyIn)
+                stacks[seat] = buyIn * AI_STACK_BUYINS;
+        }
+
+        Arrays.fill(committed, 0);
+        Arrays.fill(streetCommitted, 0);
+        Arrays.fill(streetRaises, 0);
+        revealedCount = 0;
+        revealedBoardMask = 0L;
+        playerRaiseCount = 0;
+        for (int seat = 0; seat < seats; seat++)
+            pay(seat, buyIn);
+        Arrays.fill(streetCommitted, 0);
+
+        deck.shuffle(seed);
+        for (List<Card> hole : holes)
+            hole.clear();
+        board.clear();
+        for (int round = 0; round < 2; round++) {
+            for (int seat = 0; seat < seats; seat++)
+                holes.get(seat).add(deck.draw());
+        }
+        for (int i = 0; i < 5; i++)
+            board.add(deck.draw());
+        for (int seat = 0; seat < seats; seat++)
+            holeMasks[seat] = LookupHandEvaluator.maskOf(holes.get(seat));
+    }
+
+    public boolean canRaise(int raise) {
+        return raise >= 1 && wallet.getCoins() >= raise;
+    }
+
+    /**
+     * What an AI seat knows when answering the player's action on this street. Null if
+     * the seat is all-in and has nothing left to decide.
+     *
+     * @param playerRaise the player's raise this street, 0 for a check
+     */
+    public DealerStrategy.Context seatContext(int seat, int playerRaise) {
+        if (seat == PLAYER || seat >= seats)
+            throw new IllegalArgumentException("Not an AI seat: " + seat);
+        int stack = stacks[seat];
+        if (stack == 0)
+            return null;
+        long[] raiseBoards = Arrays.copyOf(playerRaiseBoards, playerRaiseCount);
+        // No house multiplier at a table; every other seat calls (or goes all-in)
+        return new DealerStrategy.Context(holeMasks[seat], revealedBoardMask, playerRaise > 0, raiseBoards, buyIn, 1,
+                Math.max(0, stack - playerRaise), seats - 1);
+    }
+
+    /**
+     * Plays this street's betting: the player's raise, then each AI seat's raise in seat
+     * order, then everyone calls the total. AI raises are clamped to what the seat can
+     * put in; a seat short of the call goes all-in.
+     *
+     * @param playerRaise 0 to check
+     * @param aiRaises raise per seat (index {@link #PLAYER} is ignored)
+     */
+    public void bet(int playerRaise, int[] aiRaises) {
+        if (playerRaise < 0 || (playerRaise > 0 && !canRaise(playerRaise)))
+            throw new IllegalArgumentException("Player can't afford a raise of " + playerRaise);
+        Arrays.fill(streetRaises, 0);
+        if (playerRaise > 0)
+            playerRaiseBoards[playerRaiseCount++] = revealedBoardMask;
+
+        int level = playerRaise;
+        streetRaises[PLAYER] = playerRaise;
+        for (int seat = 1; seat < seats; seat++) {
+            int raise = Math.max(0, Math.min(aiRaises[seat], stacks[seat] - level));
+            streetRaises[seat] = raise;
+            level += raise;
+        }
+        for (int seat = 0; seat < seats; seat++)
+            pay(seat, level - streetCommitted[seat]);
+    }
+
+    private void pay(int seat, int amount) {
+        int paid = Math.min(amount, stackOf(seat));
+        if (paid <= 0)
+            return;
+        if (seat == PLAYER)
+            wallet.addCoins(-paid);
+        else
+            stacks[seat] -= paid;
+        committed[seat] += paid;
+        streetCommitted[seat] += paid;
+    }
+
+    public boolean isRiver() {
+        return revealedCount == 5;
+    }
+
+    /**
+     * Reveals the flop, turn or river and opens betting on it.
+     *
+     * @return the number of board cards now revealed
+     */
+    public int revealNext() {
+        if (revealedCount == 5)
+            throw new IllegalStateException("Board is fully revealed");
+        int next = (revealedCount == 0) ? 3 : revealedCount + 1;
+        for (int i = revealedCount; i < next; i++)
+            revealedBoardMask |= LookupHandEvaluator.cardBit(board.get(i).id);
+        revealedCount = next;
+        Arrays.fill(streetCommitted, 0);
+        Arrays.fill(streetRaises, 0);
+        return revealedCount;
+    }
+
+    /**
+     * Ranks every seat against the full board and splits the pots. Reads the hand only, so
+     * it can run off the main thread while the table waits; {@link #settle} then pays out.
+     */
+    public Showdown evaluateShowdown() {
+        long[] values = LookupHandEvaluator.evaluateAll(LookupHandEvaluator.maskOf(board), holeMasks);
+        List<Pot> pots = buildPots(committed, values);
+        int[] payouts = new int[seats];
+        for (Pot pot : pots) {
+            int winners = Integer.bitCount(pot.winningSeats);
+            int share = pot.amount / winners;
+            int oddChips = pot.amount - share * winners;
+            // Odd chips go one each to the winners nearest the player's left: seat 1 first,
+            // round to the player last
+            for (int i = 1; i <= seats; i++) {
+                int seat = i % seats;
+                if ((pot.winningSeats & (1 << seat)) == 0)
+                    continue;
+                payouts[seat] += share;
+                if (oddChips > 0) {
+                    payouts[seat]++;
+                    oddChips--;
+                }
+            }
+        }
+        return new Showdown(values, pots, payouts);
+    }
+
+    /**
+     * Layers the contributions into pots: each distinct all-in amount closes a pot that
+     * every seat who put in at least that much can win.
+     */
+    static List<Pot> buildPots(int[] committed, long[] values) {
+        int[] levels = committed.clone();
+        Arrays.sort(levels);
+        List<Pot> pots = new ArrayList<>();
+        int previous = 0;
+        for (int level : levels) {
+            if (level <= previous)
+                continue;
+            int amount = 0;
+            int eligible = 0;
+            long best = Long.MIN_VALUE;
+            for (int seat = 0; seat < committed.length; seat++) {
+                amount += Math.min(committed[seat], level) - Math.min(committed[seat], previous);
+                if (committed[seat] >= level) {
+                    eligible |= 1 << seat;
+                    best = Math.max(best, values[seat]);
+                }
+            }
+            int winners = 0;
+            for (int seat = 0; seat < committed.length; seat++) {
+                if ((eligible & (1 << seat)) != 0 && values[seat] == best)
+                    winners |= 1 << seat;
+            }
+            pots.add(new Pot(amount, eligible, winners));
+            previous = level;
+        }
+        return pots;
+    }
+
+    /**
+     * Pays out a showdown from {@link #evaluateShowdown()}.
+     */
+    public void settle(Showdown showdown) {
+        for (int seat = 0; seat < seats; seat++) {
+            int payout = showdown.payouts[seat];
+            if (seat == PLAYER)
+                wallet.addCoins(payout);
+            else
+                stacks[seat] += payout;
+        }
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBuyIn() {
+        return buyIn;
+    }
+
+    /**
+     * Chips the seat has behind; for the player, their coins.
+     */
+    public int stackOf(int seat) {
+        return seat == PLAYER ? wallet.getCoins() : stacks[seat];
+    }
+
+    public boolean isAllIn(int seat) {
+        return stackOf(seat) == 0;
+    }
+
+    public int getCommitted(int seat) {
+        return committed[seat];
+    }
+
+    public int getStreetRaise(int seat) {
+        return streetRaises[seat];
+    }
+
+    public int getPotTotal() {
+        int total = 0;
+        for (int amount : committed)
+            total += amount;
+        return total;
+    }
+
+    public int getRevealedCount() {
+        return revealedCount;
+    }
+
+    /**
+     * Current street: 0 = pre-flop, 1 = flop, 2 = turn, 3 = river.
+     */
+    public int getStreet() {
+        return revealedCount == 0 ? 0 : revealedCount - 2;
+    }
+
+    public List<Card> getHole(int seat) {
+        return Collections.unmodifiableList(holes.get(seat));
+    }
+
+    public List<Card> getBoard() {
+        return Collections.unmodifiableList(board);
+    }
+
+    public long getHoleMask(int seat) {
+        return holeMasks[seat];
+    }
+
+    public long getRevealedBoardMask() {
+        return revealedBoardMask;
+    }
+}
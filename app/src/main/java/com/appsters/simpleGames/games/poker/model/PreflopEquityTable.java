@@ -0,0 +1,127 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Heads-up win/tie odds of every starting-hand class against a random hand.
+ *
+ * The 169 classes (13 pairs, 78 suited, 78 offsuit) are laid out as a 13x13 grid:
+ * pairs on the diagonal, suited hands at [high][low] and offsuit hands at [low][high].
+ * The table is produced by the PreflopEquityTableGenerator tool (./gradlew
+ * :tools:generatePreflopTable) and shipped as the {@link #ASSET_NAME} asset: a 9-byte
+ * header followed by win and tie probabilities as unsigned 16-bit fractions of 65535
+ * (685 bytes in total).
+ */
+public class PreflopEquityTable {
+
+    public static final String ASSET_NAME = "preflop_equity.bin";
+    public static final int CLASS_COUNT = 169;
+
+    private static final int MAGIC = 0x50464551; // "PFEQ"
+    private static final int VERSION = 1;
+    private static final double SCALE = 65535.0;
+
+    private final char[] win;
+    private final char[] tie;
+
+    private PreflopEquityTable(char[] win, char[] tie) {
+        this.win = win;
+        this.tie = tie;
+    }
+
+    /**
+     * Index (0..168) of the starting-hand class of two card ids (suit * 13 + rank - 2).
+     */
+    public static int classIndex(int first, int second) {
+        int a = first % 13;
+        int b = second % 13;
+        int high = Math.max(a, b);
+        int low = Math.min(a, b);
+        boolean suited = first / 13 == second / 13;
+        return suited ? high * 13 + low : low * 13 + high;
+    }
+
+    public static int classIndex(Card first, Card second) {
+        return classIndex(first.id, second.id);
+    }
+
+    /**
+     * Short name of a class, e.g. "AKs", "T9o" or "77".
+     */
+    public static String className(int index) {
+        String ranks = "23456789TJQKA";
+        int row = index / 13;
+        int col = index % 13;
+        if (row == col)
+            return "" + ranks.charAt(row) + ranks.charAt(row);
+        if (row > col)
+            return "" + ranks.charAt(row) + ranks.charAt(col) + "s";
+        return "" + ranks.charAt(col) + ranks.charAt(row) + "o";
+    }
+
+    public double win(Card first, Card second) {
+        return win[classIndex(first, second)] / SCALE;
+    }
+
+    public double tie(Card first, Card second) {
+        return tie[classIndex(first, second)] / SCALE;
+    }
+
+    /**
+     * Share of the pot won on average against a random hand (ties count half).
+     */
+    public double equity(Card first, Card second) {
+        int index = classIndex(first, second);
+        return (win[index] + tie[index] / 2.0) / SCALE;
+    }
+
+    /**
+     * Builds a table from probabilities indexed by {@link #classIndex}.
+     */
+    public static PreflopEquityTable of(double[] win, double[] tie) {
+        if (win.length != CLASS_COUNT || tie.length != CLASS_COUNT)
+            throw new IllegalArgumentException("Need " + CLASS_COUNT + " classes");
+        char[] w = new char[CLASS_COUNT];
+        char[] t = new char[CLASS_COUNT];
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            w[i] = (char) Math.round(win[i] * SCALE);
+            t[i] = (char) Math.round(tie[i] * SCALE);
+        }
+        return new PreflopEquityTable(w, t);
+    }
+
+    public static PreflopEquityTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a preflop equity table");
+        int version = data.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported preflop equity table version " + version);
+        int count = data.readInt();
+        if (count != CLASS_COUNT)
+            throw new IOException("Expected " + CLASS_COUNT + " classes, found " + count);
+        char[] w = new char[CLASS_COUNT];
+        char[] t = new char[CLASS_COUNT];
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            w[i] = data.readChar();
+            t[i] = data.readChar();
+        }
+        return new PreflopEquityTable(w, t);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(CLASS_COUNT);
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            data.writeChar(win[i]);
+            data.writeChar(tie[i]);
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,103 @@
+package com.appsters.simpleGames.games.poker.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the AI side of a {@link PokerTable} in the background so the table never blocks the
+ * UI thread: every AI seat's decision for a street is computed at the same time, and
+ * showdowns are evaluated here too.
+ *
+ * Work runs on a small bounded pool (one thread per AI seat at most, capped by the core
+ * count). Each decision's equity search additionally fans out on the
+ * {@link PokerEquityEngine}'s own pool, so seats mostly wait there rather than compete for
+ * cores. Listeners are called on a pool thread.
+ */
+public class TableAi {
+
+    public interface DecisionListener {
+        /**
+         * @param raises raise per seat; 0 for the player's seat and for seats that had
+         *               nothing to decide
+         */
+        void onDecided(int[] raises);
+    }
+
+    public interface ShowdownListener {
+        void onShowdown(PokerTable.Showdown showdown);
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    public TableAi() {
+        int threads = Math.max(1, Math.min(PokerTable.MAX_SEATS - 1, Runtime.getRuntime().availableProcessors()));
+        // Room for two streets' worth of seats; more than that means callers aren't
+        // cancelling abandoned hands
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(2 * PokerTable.MAX_SEATS), r -> {
+                    Thread thread = new Thread(r, "PokerTableAi");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Asks every AI seat that still has chips for its answer to the player's action, all
+     * at once. The listener is called once, after the last seat has decided.
+     *
+     * Seat contexts are taken here on the calling thread, so the workers never read the
+     * table while it may change.
+     */
+    public void decideAll(PokerTable table, DealerStrategy strategy, int playerRaise, DecisionListener listener) {
+        int seats = table.getSeats();
+        DealerStrategy.Context[] contexts = new DealerStrategy.Context[seats];
+        int deciding = 0;
+        for (int seat = 1; seat < seats; seat++) {
+            contexts[seat] = table.seatContext(seat, playerRaise);
+            if (contexts[seat] != null)
+                deciding++;
+        }
+
+        int[] raises = new int[seats];
+        if (deciding == 0) {
+            executor.execute(() -> listener.onDecided(raises));
+            return;
+        }
+        // The last seat to finish reports; the counter also publishes the other seats' writes
+        AtomicInteger remaining = new AtomicInteger(deciding);
+        for (int seat = 1; seat < seats; seat++) {
+            DealerStrategy.Context context = contexts[seat];
+            if (context == null)
+                continue;
+            int index = seat;
+            executor.execute(() -> {
+                raises[index] = strategy.decideRaise(context);
+                if (remaining.decrementAndGet() == 0)
+                    listener.onDecided(raises);
+            });
+        }
+    }
+
+    /**
+     * Evaluates the table's showdown in the background. The table must not change until
+     * the listener has been called.
+     */
+    public void evaluate(PokerTable table, ShowdownListener listener) {
+        executor.execute(() -> listener.onShowdown(table.evaluateShowdown()));
+    }
+
+    /**
+     * Drops work that hasn't started yet, e.g. when a hand is abandoned. Its listeners are
+     * never called; decisions already running finish and report as usual.
+     */
+    public void cancelPending() {
+        executor.getQueue().clear();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,347 @@
+package com.appsters.simpleGames.games.poker.repo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory coin balance and free-coins timer of one user, loaded once per process.
+ *
+ * Every change is applied under the ledger's lock and appended to a small journal file
+ * before the call returns. The SharedPreferences snapshot is written later on a background
+ * thread, coalescing all changes made in the meantime, and the journal is emptied once the
+ * snapshot has been committed.
+ *
+ * Journal records hold the whole state (not deltas) with a sequence number and a checksum,
+ * so recovery after the process is killed takes the newest intact record that is newer than
+ * the snapshot: no change is lost and none is applied twice. A record only has to reach the
+ * OS, not the disk, to survive the app being killed, so appends are not synced.
+ */
+class CoinLedger {
+
+    private static final String TAG = "CoinLedger";
+
+    private static final String COINS_KEY_PREFIX = "coins_";
+    private static final String NEXT_FREE_AT_KEY_PREFIX = "next_free_at_";
+    private static final String FREE_AVAILABLE_KEY_PREFIX = "free_available_";
+    private static final String INITIALIZED_KEY_PREFIX = "initialized_";
+    private static final String SEQUENCE_KEY_PREFIX = "ledger_seq_";
+
+    private static final String JOURNAL_DIR = "poker_ledger";
+    // seq (8) + coins (4) + nextFreeAt (8) + freeAvailable (1) + crc (4)
+    private static final int RECORD_SIZE = 25;
+    // Snapshots wait this long so a whole hand's worth of bets becomes one write
+    private static final long FLUSH_DELAY_MS = 500;
+
+    private static final Map<String, CoinLedger> LEDGERS = new HashMap<>();
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "PokerCoinLedger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Snapshot removals queued by clear() that forUser() has not waited for yet
+    private static final Map<String, Future<?>> PENDING_CLEARS = new HashMap<>();
+
+    private final SharedPreferences prefs;
+    private final String uid;
+    private final File journalFile;
+    private FileOutputStream journal;
+
+    private long sequence;
+    private int coins;
+    private long nextFreeAt;
+    private boolean freeAvailable;
+
+    private boolean flushScheduled = false;
+    private boolean deleted = false;
+
+    private CoinLedger(Context context, SharedPreferences prefs, String uid) {
+        this.prefs = prefs;
+        this.uid = uid;
+        this.journalFile = journalFile(context, uid);
+    }
+
+    /**
+     * The ledger of a user, loading it (and replaying its journal) on first use.
+     */
+    static synchronized CoinLedger forUser(Context context, SharedPreferences prefs, String uid) {
+        CoinLedger ledger = LEDGERS.get(uid);
+        if (ledger == null) {
+            awaitClear(uid);
+            ledger = new CoinLedger(context, prefs, uid);
+            ledger.load();
+            LEDGERS.put(uid, ledger);
+        }
+        return ledger;
+    }
+
+    /**
+     * Forgets everything stored for a user, loaded or not.
+     */
+    static synchronized void clear(Context context, SharedPreferences prefs, String uid) {
+        CoinLedger ledger = LEDGERS.remove(uid);
+        if (ledger != null) {
+            ledger.delete();
+        } else if (!journalFile(context, uid).delete()) {
+            Log.d(TAG, "No journal to delete for " + uid);
+        }
+        // Queued behind any snapshot already being written, so nothing is restored afterwards.
+        // Until it has run, the old snapshot is still in prefs: forUser() waits for it.
+        PENDING_CLEARS.put(uid, WRITER.submit(() -> {
+            boolean committed = prefs.edit()
+                    .remove(INITIALIZED_KEY_PREFIX + uid)
+                    .remove(COINS_KEY_PREFIX + uid)
+                    .remove(NEXT_FREE_AT_KEY_PREFIX + uid)
+                    .remove(FREE_AVAILABLE_KEY_PREFIX + uid)
+                    .remove(SEQUENCE_KEY_PREFIX + uid)
+                    .commit();
+            if (!committed)
+                Log.e(TAG, "Could not remove coin snapshot of " + uid);
+        }));
+    }
+
+    /**
+     * Waits until the snapshot removal of the last clear() of a user, if any, has been
+     * committed. Called with the class lock held; the removal itself doesn't need it.
+     */
+    private static void awaitClear(String uid) {
+        Future<?> removal = PENDING_CLEARS.remove(uid);
+        if (removal == null)
+            return;
+        try {
+            removal.get();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Could not remove coin snapshot of " + uid, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static File journalFile(Context context, String uid) {
+        return new File(new File(context.getFilesDir(), JOURNAL_DIR), uid + ".journal");
+    }
+
+    synchronized int getCoins() {
+        return coins;
+    }
+
+    synchronized void setCoins(int value) {
+        coins = Math.max(0, value);
+        changed();
+    }
+
+    /**
+     * Applies a delta atomically (the balance never goes below zero).
+     *
+     * @return the new balance
+     */
+    synchronized int addCoins(int delta) {
+        coins = Math.max(0, coins + delta);
+        changed();
+        return coins;
+    }
+
+    synchronized boolean isFreeAvailable(long now) {
+        refreshFreeCoinsAvailability(now);
+        return freeAvailable;
+    }
+
+    synchronized long getNextFreeAt(long now) {
+        refreshFreeCoinsAvailability(now);
+        return nextFreeAt;
+    }
+
+    /**
+     * Grants the free coins if available and restarts the timer. Returns true if granted.
+     */
+    synchronized boolean claimFreeCoins(long now, int amount, long intervalMs) {
+        refreshFreeCoinsAvailability(now);
+        if (!freeAvailable)
+            return false;
+        coins += amount;
+        freeAvailable = false;
+        nextFreeAt = now + intervalMs;
+        changed();
+        return true;
+    }
+
+    /**
+     * If the timer elapsed and coins are not marked available yet, mark them available.
+     * IMPORTANT: If already available, do nothing so the "next timer" does not start.
+     */
+    private void refreshFreeCoinsAvailability(long now) {
+        if (!freeAvailable && now >= nextFreeAt) {
+            freeAvailable = true;
+            changed();
+        }
+    }
+
+    private synchronized void load() {
+        boolean initialized = prefs.getBoolean(INITIALIZED_KEY_PREFIX + uid, false);
+        sequence = prefs.getLong(SEQUENCE_KEY_PREFIX + uid, 0);
+        coins = prefs.getInt(COINS_KEY_PREFIX + uid, 0);
+        nextFreeAt = prefs.getLong(NEXT_FREE_AT_KEY_PREFIX + uid, Long.MAX_VALUE);
+        freeAvailable = prefs.getBoolean(FREE_AVAILABLE_KEY_PREFIX + uid, false);
+
+        if (replayJournal()) {
+            // The snapshot was behind; write the recovered state out.
+            scheduleFlush();
+        } else if (!initialized) {
+            // First time this user opens Poker: 100 coins now, and the first timer starts
+            // immediately; they must wait 2.5h for the next 10 coins.
+            coins = RandPokerRepository.INITIAL_COINS;
+            nextFreeAt = System.currentTimeMillis() + RandPokerRepository.FREE_COINS_INTERVAL_MS;
+            freeAvailable = false;
+            changed();
+        }
+    }
+
+    /**
+     * Restores the newest intact journal record newer than the snapshot.
+     *
+     * @return true if a record was applied
+     */
+    private boolean replayJournal() {
+        if (!journalFile.exists())
+            return false;
+        boolean applied = false;
+        byte[] record = new byte[RECORD_SIZE];
+        try (InputStream in = new FileInputStream(journalFile)) {
+            while (readFully(in, record)) {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                CRC32 crc = new CRC32();
+                crc.update(record, 0, RECORD_SIZE - 4);
+                if ((int) crc.getValue() != buffer.getInt(RECORD_SIZE - 4))
+                    break; // torn write at the end of the journal
+                long recordSequence = buffer.getLong();
+                if (recordSequence <= sequence)
+                    continue;
+                sequence = recordSequence;
+                coins = buffer.getInt();
+                nextFreeAt = buffer.getLong();
+                freeAvailable = buffer.get() != 0;
+                applied = true;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read coin journal", e);
+        }
+        return applied;
+    }
+
+    private static boolean readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0)
+                return false;
+            read += n;
+        }
+        return true;
+    }
+
+    private void changed() {
+        if (deleted)
+            return;
+        sequence++;
+        appendRecord();
+        scheduleFlush();
+    }
+
+    private void appendRecord() {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(sequence).putInt(coins).putLong(nextFreeAt).put((byte) (freeAvailable ? 1 : 0));
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+        try {
+            if (journal == null) {
+                File dir = journalFile.getParentFile();
+                if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+                    throw new IOException("Could not create " + dir);
+                journal = new FileOutputStream(journalFile, true);
+            }
+            journal.write(buffer.array());
+        } catch (IOException e) {
+            // The snapshot still gets written; only a crash before it would lose this change.
+            Log.e(TAG, "Could not append to coin journal", e);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled)
+            return;
+        flushScheduled = true;
+        WRITER.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Commits the current state to SharedPreferences, then empties the journal unless
+     * something changed while writing.
+     */
+    private void flush() {
+        long snapshotSequence;
+        int snapshotCoins;
+        long snapshotNextFreeAt;
+        boolean snapshotFreeAvailable;
+        synchronized (this) {
+            flushScheduled = false;
+            if (deleted)
+                return;
+            snapshotSequence = sequence;
+            snapshotCoins = coins;
+            snapshotNextFreeAt = nextFreeAt;
+            snapshotFreeAvailable = freeAvailable;
+        }
+
+        boolean committed = prefs.edit()
+                .putBoolean(INITIALIZED_KEY_PREFIX + uid, true)
+                .putInt(COINS_KEY_PREFIX + uid, snapshotCoins)
+                .putLong(NEXT_FREE_AT_KEY_PREFIX + uid, snapshotNextFreeAt)
+                .putBoolean(FREE_AVAILABLE_KEY_PREFIX + uid, snapshotFreeAvailable)
+                .putLong(SEQUENCE_KEY_PREFIX + uid, snapshotSequence)
+                .commit();
+        if (!committed) {
+            Log.e(TAG, "Could not write coin snapshot; keeping the journal");
+            return;
+        }
+
+        synchronized (this) {
+            if (deleted || sequence != snapshotSequence || journal == null)
+                return;
+            try {
+                journal.getChannel().truncate(0);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not truncate coin journal", e);
+            }
+        }
+    }
+
+    private synchronized void delete() {
+        deleted = true;
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Could not close coin journal", e);
+            }
+            journal = null;
+        }
+        if (journalFile.exists() && !journalFile.delete())
+            Log.e(TAG, "Could not delete coin journal");
+    }
+}
@@ -0,0 +1,298 @@
+package com.appsters.simpleGames.games.poker.repo;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.appsters.simpleGames.games.poker.model.HandRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only per-user journal of finished poker hands ({@link HandRecord}s).
+ *
+ * Records go into numbered segment files of up to {@link #SEGMENT_RECORDS} records under
+ * files/poker_history/&lt;uid&gt;/. Appends are queued in memory, in one queue shared by all
+ * instances, and written in batches on a background thread. Readers memory-map the segments, so a history list can show any hand
+ * without loading the others. Once there are more than {@link #MAX_SEGMENTS} segments the
+ * oldest are dropped whole, so the journal compacts without ever rewriting records.
+ */
+public class HandHistoryRepository {
+
+    private static final String TAG = "HandHistoryRepository";
+
+    private static final String HISTORY_DIR = "poker_history";
+    private static final String SEGMENT_SUFFIX = ".hands";
+
+    // 4096 records of 72 bytes = 288 KiB per segment
+    static final int SEGMENT_RECORDS = 4096;
+    // Keeps the newest ~64k hands (4.5 MiB)
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final long BATCH_DELAY_MS = 2000;
+    private static final int BATCH_RECORDS = 32;
+
+    // Shared by all instances so segment files are only ever touched by this thread
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "PokerHandHistory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public interface ReaderListener {
+        void onReady(Reader reader);
+    }
+
+    private static class Pending {
+        final File dir;
+        final HandRecord record;
+
+        Pending(File dir, HandRecord record) {
+            this.dir = dir;
+            this.record = record;
+        }
+    }
+
+    // Hands not written yet, of every user, oldest first. Shared so that clear() on any
+    // instance also drops what another one has queued.
+    private static final List<Pending> PENDING = new ArrayList<>();
+    private static boolean flushScheduled = false;
+
+    private final File root;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public HandHistoryRepository(Context context) {
+        this.root = new File(context.getApplicationContext().getFilesDir(), HISTORY_DIR);
+    }
+
+    /**
+     * Queues a hand for the user's journal. It is written within a couple of seconds, or as
+     * soon as enough hands are queued.
+     */
+    public void append(String uid, HandRecord record) {
+        synchronized (PENDING) {
+            PENDING.add(new Pending(userDir(uid), record));
+            if (PENDING.size() >= BATCH_RECORDS) {
+                flushScheduled = true;
+                WRITER.execute(HandHistoryRepository::writePending);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                WRITER.schedule(HandHistoryRepository::writePending, BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes queued hands without waiting for the batch delay.
+     */
+    public void flush() {
+        WRITER.execute(HandHistoryRepository::writePending);
+    }
+
+    /**
+     * Writes queued hands, then maps the user's journal and hands the reader to the
+     * listener on the main thread.
+     */
+    public void openReader(String uid, ReaderListener listener) {
+        WRITER.execute(() -> {
+            writePending();
+            Reader reader = mapSegments(userDir(uid));
+            mainHandler.post(() -> listener.onReady(reader));
+        });
+    }
+
+    /**
+     * Deletes the user's whole history, including hands queued but not written yet. Hands
+     * appended after this call are kept.
+     */
+    public void clear(String uid) {
+        File dir = userDir(uid);
+        synchronized (PENDING) {
+            for (int i = PENDING.size() - 1; i >= 0; i--) {
+                if (PENDING.get(i).dir.equals(dir))
+                    PENDING.remove(i);
+            }
+        }
+        // Queued before any write of a later append, so those survive
+        WRITER.execute(() -> {
+            File[] segments = segments(dir);
+            for (File segment : segments) {
+                if (!segment.delete())
+                    Log.e(TAG, "Could not delete " + segment);
+            }
+        });
+    }
+
+    private File userDir(String uid) {
+        return new File(root, uid);
+    }
+
+    private static void writePending() {
+        List<Pending> batch;
+        synchronized (PENDING) {
+            flushScheduled = false;
+            if (PENDING.isEmpty())
+                return;
+            batch = new ArrayList<>(PENDING);
+            PENDING.clear();
+        }
+
+        // Usually one user; keep their records in order
+        while (!batch.isEmpty()) {
+            File dir = batch.get(0).dir;
+            List<HandRecord> records = new ArrayList<>();
+            for (int i = 0; i < batch.size();) {
+                if (batch.get(i).dir.equals(dir))
+                    records.add(batch.remove(i).record);
+                else
+                    i++;
+            }
+            try {
+                write(dir, records);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not write hand history", e);
+            }
+        }
+    }
+
+    private static void write(File dir, List<HandRecord> records) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Could not create " + dir);
+
+        List<File> segments = new ArrayList<>(Arrays.asList(segments(dir)));
+        if (segments.isEmpty())
+            segments.add(segmentFile(dir, 0));
+        File segment = segments.get(segments.size() - 1);
+
+        int next = appendToSegment(segment, records, 0);
+        while (next < records.size()) {
+            // Full: start the next segment
+            segment = segmentFile(dir, segmentNumber(segment) + 1);
+            segments.add(segment);
+            next = appendToSegment(segment, records, next);
+        }
+
+        compact(segments);
+    }
+
+    /**
+     * Appends records from index {@code from} until the segment is full.
+     *
+     * @return the index of the first record not written
+     */
+    private static int appendToSegment(File segment, List<HandRecord> records, int from) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            FileChannel channel = file.getChannel();
+            // Drop a record torn by a crash mid-write
+            long whole = channel.size() / HandRecord.SIZE;
+            if (channel.size() != whole * HandRecord.SIZE)
+                channel.truncate(whole * HandRecord.SIZE);
+
+            int count = (int) Math.min(SEGMENT_RECORDS - whole, records.size() - from);
+            if (count <= 0)
+                return from;
+            ByteBuffer buffer = ByteBuffer.allocate(count * HandRecord.SIZE);
+            for (int i = 0; i < count; i++)
+                records.get(from + i).writeTo(buffer);
+            buffer.flip();
+            channel.position(whole * HandRecord.SIZE);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            return from + count;
+        }
+    }
+
+    /**
+     * Drops the oldest segments beyond {@link #MAX_SEGMENTS}.
+     */
+    private static void compact(List<File> segments) {
+        for (int i = 0; i < segments.size() - MAX_SEGMENTS; i++) {
+            if (!segments.get(i).delete())
+                Log.e(TAG, "Could not delete old segment " + segments.get(i));
+        }
+    }
+
+    private static File[] segments(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files == null)
+            return new File[0];
+        Arrays.sort(files, (a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return files;
+    }
+
+    private static File segmentFile(File dir, long number) {
+        return new File(dir, String.format(Locale.ROOT, "%010d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static Reader mapSegments(File dir) {
+        File[] segments = segments(dir);
+        List<MappedByteBuffer> maps = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (File segment : segments) {
+            try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+                FileChannel channel = file.getChannel();
+                int count = (int) (channel.size() / HandRecord.SIZE);
+                if (count == 0)
+                    continue;
+                // The mapping stays valid after the channel is closed
+                maps.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * HandRecord.SIZE));
+                counts.add(count);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not map " + segment, e);
+            }
+        }
+        return new Reader(maps, counts);
+    }
+
+    /**
+     * Read-only view of a user's journal as it was when opened. Records are decoded on
+     * demand straight from the mapped segments; index 0 is the newest hand.
+     */
+    public static class Reader {
+        private final MappedByteBuffer[] segments;
+        // First record index (counted from the oldest) of each segment, plus the total
+        private final int[] starts;
+
+        Reader(List<MappedByteBuffer> segments, List<Integer> counts) {
+            this.segments = segments.toArray(new MappedByteBuffer[0]);
+            this.starts = new int[counts.size() + 1];
+            for (int i = 0; i < counts.size(); i++)
+                starts[i + 1] = starts[i] + counts.get(i);
+        }
+
+        public int size() {
+            return starts[starts.length - 1];
+        }
+
+        /**
+         * The hand at a position, newest first, or null if the record is damaged.
+         */
+        public HandRecord get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("No hand " + index + " of " + size());
+            int position = size() - 1 - index;
+            int segment = Arrays.binarySearch(starts, position);
+            // Exact hit is the first record of that segment; otherwise -(insertion point) - 1
+            segment = segment >= 0 ? segment : -segment - 2;
+            return HandRecord.readFrom(segments[segment], (position - starts[segment]) * HandRecord.SIZE);
+        }
+    }
+}
@@ -22,151 +22,109 @@ public class RandPokerRepository {
 
     private static final String PREFS_NAME = "PokerPrefs";
 
-    private static final String COINS_KEY_PREFIX = "coins_";
-    private static final String NEXT_FREE_AT_KEY_PREFIX = "next_free_at_";
-    private static final String FREE_AVAILABLE_KEY_PREFIX = "free_available_";
-    private static final String INITIALIZED_KEY_PREFIX = "initialized_";
-
     // 2.5 hours in millis
     public static final long FREE_COINS_INTERVAL_MS = (long) (2.5 * 60 * 60 * 1000);
     public static final int INITIAL_COINS = 100;
     public static final int FREE_COINS_AMOUNT = 10;
 
+    // Signed-in user's uid, kept current by one process-wide auth listener
+    private static volatile String currentUid;
+    private static boolean trackingAuth = false;
+
+    private final Context context;
     private final SharedPreferences sharedPreferences;
 
     public RandPokerRepository(Context context) {
+        this.context = context.getApplicationContext();
         this.sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        trackCurrentUser();
+    }
+
+    private static synchronized void trackCurrentUser() {
+        if (trackingAuth) return;
+        trackingAuth = true;
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        currentUid = uidOf(auth.getCurrentUser());
+        auth.addAuthStateListener(a -> currentUid = uidOf(a.getCurrentUser()));
     }
 
     @Nullable
-    private FirebaseUser getCurrentUser() {
-        return FirebaseAuth.getInstance().getCurrentUser();
+    private static String uidOf(@Nullable FirebaseUser user) {
+        return user == null ? null : user.getUid();
     }
 
-    private String key(String prefix) {
-        FirebaseUser user = getCurrentUser();
-        if (user == null) return null;
-        return prefix + user.getUid();
+    @Nullable
+    private String uid() {
+        String uid = currentUid;
+        if (uid == null) {
+            // The listener may not have heard about a sign-in that just completed.
+            uid = uidOf(FirebaseAuth.getInstance().getCurrentUser());
+        }
+        return uid;
+    }
+
+    /**
+     * The signed-in user's ledger, or null when signed out. Balance and timer state are
+     * read from storage only the first time per process.
+     */
+    @Nullable
+    private CoinLedger ledger() {
+        String uid = uid();
+        if (uid == null) return null;
+        return CoinLedger.forUser(context, sharedPreferences, uid);
     }
 
     /**
      * Ensures the user has initial state. Safe to call repeatedly.
      */
     public void ensureInitialized() {
-        String initKey = key(INITIALIZED_KEY_PREFIX);
-        String coinsKey = key(COINS_KEY_PREFIX);
-        String nextKey = key(NEXT_FREE_AT_KEY_PREFIX);
-        String availKey = key(FREE_AVAILABLE_KEY_PREFIX);
-        if (initKey == null || coinsKey == null || nextKey == null || availKey == null) return;
-
-        boolean initialized = sharedPreferences.getBoolean(initKey, false);
-        if (!initialized) {
-            long now = System.currentTimeMillis();
-            sharedPreferences.edit()
-                    .putBoolean(initKey, true)
-                    .putInt(coinsKey, INITIAL_COINS)
-                    // Start the first timer immediately; user must wait 2.5h for the next 10 coins
-                    .putLong(nextKey, now + FREE_COINS_INTERVAL_MS)
-                    .putBoolean(availKey, false)
-                    .apply();
-        } else {
-            // Update availability if timer has elapsed (but do NOT move the next time if already available)
-            refreshFreeCoinsAvailability();
-        }
+        ledger();
     }
 
     public int getCoins() {
-        String coinsKey = key(COINS_KEY_PREFIX);
-        if (coinsKey == null) return 0;
-        ensureInitialized();
-        return sharedPreferences.getInt(coinsKey, 0);
+        CoinLedger ledger = ledger();
+        return ledger == null ? 0 : ledger.getCoins();
     }
 
     public void setCoins(int coins) {
-        String coinsKey = key(COINS_KEY_PREFIX);
-        if (coinsKey == null) return;
-        ensureInitialized();
-        sharedPreferences.edit().putInt(coinsKey, Math.max(0, coins)).apply();
+        CoinLedger ledger = ledger();
+        if (ledger == null) return;
+        ledger.setCoins(coins);
     }
 
-    public void addCoins(int delta) {
-        int current = getCoins();
-        setCoins(current + delta);
+    /**
+     * Adds (or with a negative delta, removes) coins in one step. The balance never goes
+     * below zero.
+     *
+     * @return the new balance
+     */
+    public int addCoins(int delta) {
+        CoinLedger ledger = ledger();
+        return ledger == null ? 0 : ledger.addCoins(delta);
     }
 
     public boolean canClaimFreeCoins() {
-        String availKey = key(FREE_AVAILABLE_KEY_PREFIX);
-        if (availKey == null) return false;
-        ensureInitialized();
-        refreshFreeCoinsAvailability();
-        return sharedPreferences.getBoolean(availKey, false);
+        CoinLedger ledger = ledger();
+        return ledger != null && ledger.isFreeAvailable(System.currentTimeMillis());
     }
 
     public long getNextFreeCoinsAtMs() {
-        String nextKey = key(NEXT_FREE_AT_KEY_PREFIX);
-        if (nextKey == null) return Long.MAX_VALUE;
-        ensureInitialized();
-        refreshFreeCoinsAvailability();
-        return sharedPreferences.getLong(nextKey, Long.MAX_VALUE);
+        CoinLedger ledger = ledger();
+        return ledger == null ? Long.MAX_VALUE : ledger.getNextFreeAt(System.currentTimeMillis());
     }
 
     /**
      * Claims the free coins if available. Returns true if coins were granted.
      */
     public boolean claimFreeCoins() {
-        String availKey = key(FREE_AVAILABLE_KEY_PREFIX);
-        String nextKey = key(NEXT_FREE_AT_KEY_PREFIX);
-        String coinsKey = key(COINS_KEY_PREFIX);
-        if (availKey == null || nextKey == null || coinsKey == null) return false;
-
-        ensureInitialized();
-        refreshFreeCoinsAvailability();
-
-        boolean available = sharedPreferences.getBoolean(availKey, false);
-        if (!available) return false;
-
-        long now = System.currentTimeMillis();
-        int currentCoins = sharedPreferences.getInt(coinsKey, 0);
-
-        sharedPreferences.edit()
-                .putInt(coinsKey, currentCoins + FREE_COINS_AMOUNT)
-                .putBoolean(availKey, false)
-                .putLong(nextKey, now + FREE_COINS_INTERVAL_MS)
-                .apply();
-        return true;
-    }
-
-    /**
-     * If the timer elapsed and coins are not marked available yet, mark them available.
-     * IMPORTANT: If already available, do nothing so the "next timer" does not start.
-     */
-    private void refreshFreeCoinsAvailability() {
-        String availKey = key(FREE_AVAILABLE_KEY_PREFIX);
-        String nextKey = key(NEXT_FREE_AT_KEY_PREFIX);
-        if (availKey == null || nextKey == null) return;
-
-        boolean available = sharedPreferences.getBoolean(availKey, false);
-        if (available) return;
-
-        long nextAt = sharedPreferences.getLong(nextKey, Long.MAX_VALUE);
-        long now = System.currentTimeMillis();
-        if (now >= nextAt) {
-            sharedPreferences.edit().putBoolean(availKey, true).apply();
-        }
+        CoinLedger ledger = ledger();
+        if (ledger == null) return false;
+        return ledger.claimFreeCoins(System.currentTimeMillis(), FREE_COINS_AMOUNT, FREE_COINS_INTERVAL_MS);
     }
 
     public void clearAllState() {
-        String initKey = key(INITIALIZED_KEY_PREFIX);
-        String coinsKey = key(COINS_KEY_PREFIX);
-        String nextKey = key(NEXT_FREE_AT_KEY_PREFIX);
-        String availKey = key(FREE_AVAILABLE_KEY_PREFIX);
-        if (initKey == null || coinsKey == null || nextKey == null || availKey == null) return;
-
-        sharedPreferences.edit()
-                .remove(initKey)
-                .remove(coinsKey)
-                .remove(nextKey)
-                .remove(availKey)
-                .apply();
+        String uid = uid();
+        if (uid == null) return;
+        CoinLedger.clear(context, sharedPreferences, uid);
     }
 }
@@ -10,8 +10,9 @@ import androidx.core.content.ContextCompat
 import androidx.lifecycle.Observer
 import com.appsters.simpleGames.R
 import com.appsters.simpleGames.games.whackamole.model.GameConfig
-import com.appsters.simpleGames.games.whackamole.model.Mole
+import com.appsters.simpleGames.games.whackamole.model.MoleBoard
 import com.appsters.simpleGames.games.whackamole.model.MoleColor
+import com.appsters.simpleGames.games.whackamole.model.MoleEvent
 import com.appsters.simpleGames.games.whackamole.repository.SharedPrefGameRepository
 import com.appsters.simpleGames.games.whackamole.util.AndroidScheduler
 
@@ -38,6 +39,11 @@ class WhackAMoleGameActivity : AppCompatActivity() {
      */
     private val moleImageViews = mutableListOf<ImageView>()
 
+    /**
+     * The hole this screen last showed a mole in, or `MoleBoard.NO_MOLE`.
+     */
+    private var shownMoleId = MoleBoard.NO_MOLE
+
     /**
      * The `viewModel` provides the data for the game and handles the game logic.
      * It is lazily initialized to ensure that it is created only when needed.
@@ -77,10 +83,8 @@ class WhackAMoleGameActivity : AppCompatActivity() {
             livesTextView.text = getString(R.string.lives_format, livesRemaining)
         })
 
-        viewModel.moles.observe(this, Observer { moleContainer ->
-            moleContainer.moles.forEach { mole ->
-                updateMoleView(mole)
-            }
+        viewModel.moleEvents.observe(this, Observer { event ->
+            applyMoleEvent(event)
         })
 
         viewModel.gameOver.observe(this, Observer { isGameOver ->
@@ -130,55 +134,72 @@ class WhackAMoleGameActivity : AppCompatActivity() {
     }
 
     /**
-     * Updates a single mole's `ImageView` based on its state, including its visibility
-     * and color. This function is called for all nine moles each time the `MoleContainer`
-     * changes.
+     * Applies a change of the mole board: hides the hole the mole left and shows it
+     * in its new hole, leaving every other hole alone.
      *
-     * @param mole The `Mole` object containing the ID, visibility, and color information.
+     * @param event The `MoleEvent` naming the two holes and the new mole's color.
      */
-    private fun updateMoleView(mole: Mole) {
+    private fun applyMoleEvent(event: MoleEvent) {
         if (moleImageViews.isEmpty()) {
             return
         }
 
-        val moleView = moleImageViews[mole.id]
+        // Events that came while the screen was stopped were never applied, so the
+        // mole on screen may not be the one the event hides
+        if (shownMoleId != event.hiddenId) {
+            hideMoleView(shownMoleId)
+        }
+        hideMoleView(event.hiddenId)
+        showMoleView(event.shownId, event.color)
+        shownMoleId = event.shownId
+    }
 
-        if (mole.isVisible) {
-            moleView.visibility = View.VISIBLE
+    private fun hideMoleView(moleId: Int) {
+        if (moleId != MoleBoard.NO_MOLE) {
+            moleImageViews[moleId].visibility = View.INVISIBLE
+        }
+    }
 
-            // 1. Get the Neon Color
-            val colorInt = when (mole.color) {
-                MoleColor.RED -> android.graphics.Color.parseColor("#FF3333") // Bright Red
-                MoleColor.BLUE -> android.graphics.Color.parseColor("#00FFFF") // Cyan/Neon Blue
-                MoleColor.GREEN -> android.graphics.Color.parseColor("#39FF14") // Neon Green
-                MoleColor.YELLOW -> android.graphics.Color.parseColor("#FFFF00") // Bright Yellow
-                MoleColor.PURPLE -> android.graphics.Color.parseColor("#E040FB") // Neon Purple
-            }
+    /**
+     * Shows a mole of the given color in a single hole's `ImageView`.
+     *
+     * @param moleId The ID of the hole to show the mole in.
+     * @param color The color of the mole.
+     */
+    private fun showMoleView(moleId: Int, color: MoleColor) {
+        val moleView = moleImageViews[moleId]
+        moleView.visibility = View.VISIBLE
+
+        // 1. Get the Neon Color
+        val colorInt = when (color) {
+            MoleColor.RED -> android.graphics.Color.parseColor("#FF3333") // Bright Red
+            MoleColor.BLUE -> android.graphics.Color.parseColor("#00FFFF") // Cyan/Neon Blue
+            MoleColor.GREEN -> android.graphics.Color.parseColor("#39FF14") // Neon Green
+            MoleColor.YELLOW -> android.graphics.Color.parseColor("#FFFF00") // Bright Yellow
+            MoleColor.PURPLE -> android.graphics.Color.parseColor("#E040FB") // Neon Purple
+        }
 
-            // 2. Get the Glow Image (Background) & Tint it
-            val glowDrawable = ContextCompat.getDrawable(this, R.drawable.mole_glow)?.mutate()
-            glowDrawable?.colorFilter = android.graphics.PorterDuffColorFilter(colorInt, android.graphics.PorterDuff.Mode.MULTIPLY)
+        // 2. Get the Glow Image (Background) & Tint it
+        val glowDrawable = ContextCompat.getDrawable(this, R.drawable.mole_glow)?.mutate()
+        glowDrawable?.colorFilter = android.graphics.PorterDuffColorFilter(colorInt, android.graphics.PorterDuff.Mode.MULTIPLY)
+        
+        // 3. Get the Mole Image (Foreground)
+        val moleDrawable = ContextCompat.getDrawable(this, R.drawable.mole_transparent)
+        
+        // 4. Layer them together
+        if (moleDrawable != null && glowDrawable != null) {
+            // Layer the tinted glow behind the mole
+            val layers = arrayOf(glowDrawable, moleDrawable)
+            val layerDrawable = android.graphics.drawable.LayerDrawable(layers)
             
-            // 3. Get the Mole Image (Foreground)
-            val moleDrawable = ContextCompat.getDrawable(this, R.drawable.mole_transparent)
-            
-            // 4. Layer them together
-            if (moleDrawable != null && glowDrawable != null) {
-                // Layer the tinted glow behind the mole
-                val layers = arrayOf(glowDrawable, moleDrawable)
-                val layerDrawable = android.graphics.drawable.LayerDrawable(layers)
-                
-                // No insets - center glow directly on/under the mole as requested
-                moleView.background = layerDrawable
-            } else {
-                // Fallback
-                 moleView.background = glowDrawable ?: moleDrawable
-            }
-            
-            moleView.backgroundTintList = null // Clear constraints
+            // No insets - center glow directly on/under the mole as requested
+            moleView.background = layerDrawable
         } else {
-            moleView.visibility = View.INVISIBLE
+            // Fallback
+             moleView.background = glowDrawable ?: moleDrawable
         }
+        
+        moleView.backgroundTintList = null // Clear constraints
     }
 
     /**
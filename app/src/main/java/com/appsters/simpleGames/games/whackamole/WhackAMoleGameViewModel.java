@@ -8,7 +8,9 @@ import com.appsters.simpleGames.app.data.repository.LeaderboardRepository;
 import com.appsters.simpleGames.app.data.repository.UserRepository;
 import com.appsters.simpleGames.app.util.GameType;
 import com.appsters.simpleGames.games.whackamole.model.GameConfig;
-import com.appsters.simpleGames.games.whackamole.model.MoleContainer;
+import com.appsters.simpleGames.games.whackamole.model.MoleBoard;
+import com.appsters.simpleGames.games.whackamole.model.MoleColor;
+import com.appsters.simpleGames.games.whackamole.model.MoleEvent;
 import com.appsters.simpleGames.games.whackamole.repository.GameRepository;
 import com.appsters.simpleGames.games.whackamole.util.Scheduler;
 import com.google.firebase.auth.FirebaseAuth;
@@ -46,7 +48,8 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
     private final LiveData<Integer> highScore;
     private final MutableLiveData<Integer> score;
     private final MutableLiveData<Boolean> gameOver;
-    private final MutableLiveData<MoleContainer> moles;
+    private final MoleBoard moleBoard;
+    private final MutableLiveData<MoleEvent> moleEvents;
     private final MutableLiveData<Integer> misses;
     private final MutableLiveData<Long> moleTimeRemaining;
     private final Runnable moleTimerRunnable = this::onMoleTimerTick;
@@ -87,9 +90,9 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
 
         this.score = new MutableLiveData<>(0);
         this.gameOver = new MutableLiveData<>(false);
-        this.moles = new MutableLiveData<>(
-                new MoleContainer(gameConfig.getNumMoles(),
-                        random.nextInt(gameConfig.getNumMoles())));
+        this.moleBoard = new MoleBoard(gameConfig.getNumMoles());
+        this.moleEvents = new MutableLiveData<>(moleBoard.showMole(
+                random.nextInt(gameConfig.getNumMoles()), MoleColor.randomColor(random)));
         this.misses = new MutableLiveData<>(0);
         this.moleTimeRemaining = new MutableLiveData<>(gameConfig.getInitialInterval());
 
@@ -116,8 +119,6 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
             return; // Game is already over, do nothing.
         }
 
-        MoleContainer currentMoles = Objects.requireNonNull(moles.getValue());
-
         // Increment miss because previous mole was not hit
         int currentMisses = Objects.requireNonNull(misses.getValue());
         misses.setValue(currentMisses + 1);
@@ -127,11 +128,7 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
             return;
         }
 
-        // Pick new mole ID avoiding previous one
-        int newVisibleId = random.nextInt(gameConfig.getNumMoles() - 1);
-        newVisibleId = newVisibleId >= currentMoles.getVisibleId() ? newVisibleId + 1 : newVisibleId;
-
-        moles.setValue(new MoleContainer(gameConfig.getNumMoles(), newVisibleId));
+        showNextMole();
 
         // Speed up interval
         currentInterval = Math.max(gameConfig.getMinInterval(),
@@ -145,6 +142,16 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
         scheduler.postDelayed(moleTimerRunnable, 100);
     }
 
+    /**
+     * Moves the mole to a random hole other than the one it is in, with a new
+     * random color.
+     */
+    private void showNextMole() {
+        int newVisibleId = random.nextInt(gameConfig.getNumMoles() - 1);
+        newVisibleId = newVisibleId >= moleBoard.getVisibleId() ? newVisibleId + 1 : newVisibleId;
+        moleEvents.setValue(moleBoard.showMole(newVisibleId, MoleColor.randomColor(random)));
+    }
+
     private void onMoleTimerTick() {
         long currentTime = Objects.requireNonNull(moleTimeRemaining.getValue());
         if (currentTime > 0) {
@@ -200,16 +207,15 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
             return;
         }
 
-        MoleContainer currentMoles = Objects.requireNonNull(moles.getValue());
         int currentScore = Objects.requireNonNull(score.getValue());
         Integer currentHighScore = highScore.getValue(); // Can be null initially
 
-        if (currentMoles.getVisibleId() != moleId) {
+        if (moleBoard.getVisibleId() != moleId) {
             return;
         }
 
         // Increment score
-        int newScore = currentScore + currentMoles.getMoles().get(moleId).getColor().getPoints();
+        int newScore = currentScore + moleBoard.getVisibleColor().getPoints();
         score.setValue(newScore);
 
         // Update high score if needed
@@ -217,10 +223,7 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
             gameRepository.saveHighScore(newScore);
         }
 
-        // Pick new mole ID
-        int newVisibleId = random.nextInt(gameConfig.getNumMoles() - 1);
-        newVisibleId = newVisibleId >= currentMoles.getVisibleId() ? newVisibleId + 1 : newVisibleId;
-        moles.setValue(new MoleContainer(gameConfig.getNumMoles(), newVisibleId));
+        showNextMole();
 
         // Speed up interval
         currentInterval = Math.max(gameConfig.getMinInterval(),
@@ -255,8 +258,8 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
 
         score.setValue(0);
         gameOver.setValue(false);
-        moles.setValue(new MoleContainer(gameConfig.getNumMoles(), random.nextInt(
-                gameConfig.getNumMoles())));
+        moleEvents.setValue(moleBoard.showMole(random.nextInt(gameConfig.getNumMoles()),
+                MoleColor.randomColor(random)));
         moleTimeRemaining.setValue(gameConfig.getInitialInterval());
 
         scheduler.postDelayed(spawnRunnable, currentInterval);
@@ -264,12 +267,14 @@ public class WhackAMoleGameViewModel extends androidx.lifecycle.AndroidViewModel
     }
 
     /**
-     * @return A LiveData stream of the {@link MoleContainer}, which holds the state
-     *         of all moles.
-     *         The UI observes this to draw the moles on the screen.
+     * @return A LiveData stream of {@link MoleEvent}s, one each time the mole
+     *         moves to another hole.
+     *         The UI observes this to redraw just the holes that changed. The
+     *         event object is reused, so it is only valid while it is the
+     *         current value.
      */
-    public LiveData<MoleContainer> getMoles() {
-        return moles;
+    public LiveData<MoleEvent> getMoleEvents() {
+        return moleEvents;
     }
 
     /**
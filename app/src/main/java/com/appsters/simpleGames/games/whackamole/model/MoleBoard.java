@@ -0,0 +1,70 @@
+package com.appsters.simpleGames.games.whackamole.model;
+
+/**
+ * Mutable board of mole holes, with at most one mole showing at a time.
+ * One board lasts the whole game: moving the mole updates it in place and
+ * reports the change as a {@link MoleEvent}, so only the two holes involved
+ * need redrawing however many holes there are.
+ */
+public final class MoleBoard {
+
+    /** Hole id meaning no hole. */
+    public static final int NO_MOLE = -1;
+
+    private final int holeCount;
+    private final MoleEvent event = new MoleEvent();
+    private int visibleId = NO_MOLE;
+    private MoleColor visibleColor;
+
+    /**
+     * Constructor
+     *
+     * @param holeCount total number of holes
+     * @throws IllegalArgumentException if holeCount is not positive
+     */
+    public MoleBoard(int holeCount) {
+        if (holeCount <= 0) {
+            throw new IllegalArgumentException("holeCount must be greater than 0");
+        }
+        this.holeCount = holeCount;
+    }
+
+    /**
+     * Moves the mole to a hole, hiding it from the one it was in.
+     *
+     * @param id    the hole to show the mole in
+     * @param color the color of the mole
+     * @return the change, valid until the next call
+     * @throws IllegalArgumentException if id is out of bounds
+     */
+    public MoleEvent showMole(int id, MoleColor color) {
+        if (id < 0 || id >= holeCount) {
+            throw new IllegalArgumentException("id must be between 0 and holeCount - 1");
+        }
+        event.set(visibleId, id, color);
+        visibleId = id;
+        visibleColor = color;
+        return event;
+    }
+
+    /**
+     * @return total number of holes
+     */
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    /**
+     * @return the hole the mole is showing in, or {@link #NO_MOLE}
+     */
+    public int getVisibleId() {
+        return visibleId;
+    }
+
+    /**
+     * @return the color of the mole showing, or null if there is none
+     */
+    public MoleColor getVisibleColor() {
+        return visibleColor;
+    }
+}
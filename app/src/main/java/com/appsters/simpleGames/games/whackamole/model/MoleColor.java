@@ -18,6 +18,9 @@ public enum MoleColor {
     /** A rare purple mole, worth 10 points. */
     PURPLE(10);
 
+    // values() copies the array on every call
+    private static final MoleColor[] VALUES = values();
+
     private final int points;
 
     MoleColor(int points) {
@@ -37,10 +40,10 @@ public enum MoleColor {
      * Selects and returns a random MoleColor from the set of all possible colors.
      * Each color has an equal chance of being chosen.
      *
+     * @param random The source of randomness to pick with.
      * @return A randomly selected {@link MoleColor}.
      */
-    public static MoleColor randomColor() {
-        MoleColor[] values = values();
-        return values[new Random().nextInt(values.length)];
+    public static MoleColor randomColor(Random random) {
+        return VALUES[random.nextInt(VALUES.length)];
     }
 }
@@ -0,0 +1,44 @@
+package com.appsters.simpleGames.games.whackamole.model;
+
+/**
+ * A change to the mole board: the mole left one hole and showed up in another.
+ * A {@link MoleBoard} reuses a single event for every change, so an event is
+ * only valid until the board changes again.
+ */
+public final class MoleEvent {
+
+    private int hiddenId = MoleBoard.NO_MOLE;
+    private int shownId = MoleBoard.NO_MOLE;
+    private MoleColor color;
+
+    MoleEvent() {
+    }
+
+    void set(int hiddenId, int shownId, MoleColor color) {
+        this.hiddenId = hiddenId;
+        this.shownId = shownId;
+        this.color = color;
+    }
+
+    /**
+     * @return the hole the mole left, or {@link MoleBoard#NO_MOLE} if none was
+     *         showing. May be the same hole as {@link #getShownId()}.
+     */
+    public int getHiddenId() {
+        return hiddenId;
+    }
+
+    /**
+     * @return the hole the mole is showing in now
+     */
+    public int getShownId() {
+        return shownId;
+    }
+
+    /**
+     * @return the color of the mole now showing
+     */
+    public MoleColor getColor() {
+        return color;
+    }
+}
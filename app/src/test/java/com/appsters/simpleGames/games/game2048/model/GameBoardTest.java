@@ -0,0 +1,194 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Checks {@link GameBoard} moves, on the packed 4x4 path ({@link BitBoard}'s row tables)
+ * and the byte-per-cell path, against a plain line-by-line reference on random boards.
+ */
+public class GameBoardTest {
+
+    private static final long SEED = 2048L;
+    private static final int BOARDS = 20_000;
+    private static final int[] DIRECTIONS = { BitBoard.LEFT, BitBoard.UP, BitBoard.RIGHT, BitBoard.DOWN };
+
+    /**
+     * The result of one move computed the slow way.
+     */
+    private static class Expected {
+        final int[] cells;
+        final int score;
+        final boolean moved;
+        // Per line, the position each tile slides to (as lineDestinations packs it)
+        final int[] destinations;
+
+        Expected(int[] cells, int score, boolean moved, int[] destinations) {
+            this.cells = cells;
+            this.score = score;
+            this.moved = moved;
+            this.destinations = destinations;
+        }
+    }
+
+    /**
+     * Cell (row * size + col) of the i-th cell of a line, i = 0 at the edge tiles slide to.
+     */
+    private static int cell(int size, int direction, int line, int i) {
+        switch (direction) {
+            case BitBoard.LEFT:
+                return line * size + i;
+            case BitBoard.RIGHT:
+                return line * size + size - 1 - i;
+            case BitBoard.UP:
+                return i * size + line;
+            default:
+                return (size - 1 - i) * size + line;
+        }
+    }
+
+    private static int maxExponent(int size) {
+        return size == GameBoard.PACKED_SIZE ? BitBoard.MAX_EXPONENT : GameBoard.MAX_EXPONENT;
+    }
+
+    private static Expected reference(int[] cells, int size, int direction) {
+        int[] out = new int[cells.length];
+        int[] destinations = new int[size];
+        int score = 0;
+        for (int line = 0; line < size; line++) {
+            int[] slid = new int[size];
+            boolean[] merged = new boolean[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int exponent = cells[cell(size, direction, line, i)];
+                if (exponent == 0)
+                    continue;
+                if (count > 0 && !merged[count - 1] && slid[count - 1] == exponent
+                        && exponent < maxExponent(size)) {
+                    slid[count - 1]++;
+                    merged[count - 1] = true;
+                    score += 1 << (exponent + 1);
+                } else {
+                    slid[count++] = exponent;
+                }
+                destinations[line] |= (count - 1) << (4 * i);
+            }
+            for (int i = 0; i < size; i++)
+                out[cell(size, direction, line, i)] = slid[i];
+        }
+        boolean moved = false;
+        for (int c = 0; c < cells.length; c++)
+            moved |= out[c] != cells[c];
+        return new Expected(out, score, moved, destinations);
+    }
+
+    private static boolean referenceCanMove(int[] cells, int size) {
+        for (int direction : DIRECTIONS) {
+            if (reference(cells, size, direction).moved)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Random exponents, mostly small so neighbours often merge; full boards half the time
+     * so some can't move, and now and then tiles at the merge cap.
+     */
+    private static int[] randomCells(Random random, int size) {
+        int[] cells = new int[size * size];
+        boolean full = random.nextBoolean();
+        int top = maxExponent(size);
+        for (int c = 0; c < cells.length; c++) {
+            if (!full && random.nextInt(3) == 0)
+                continue;
+            cells[c] = random.nextInt(10) == 0 ? top - random.nextInt(2) : 1 + random.nextInt(4);
+        }
+        return cells;
+    }
+
+    private static GameBoard boardOf(int[] cells, int size) {
+        GameBoard board = new GameBoard(size);
+        for (int c = 0; c < cells.length; c++)
+            board.setExponent(c, cells[c]);
+        return board;
+    }
+
+    private static void checkMovesMatchReference(int size) {
+        Random random = new Random(SEED + size);
+        GameBoard into = new GameBoard(size);
+        for (int n = 0; n < BOARDS; n++) {
+            int[] cells = randomCells(random, size);
+            GameBoard board = boardOf(cells, size);
+            assertEquals(referenceCanMove(cells, size), board.canMove());
+
+            for (int direction : DIRECTIONS) {
+                Expected expected = reference(cells, size, direction);
+                int score = board.moveInto(direction, into);
+                assertEquals(expected.moved ? expected.score : GameBoard.NO_MOVE, score);
+                for (int c = 0; c < cells.length; c++)
+                    assertEquals(expected.cells[c], into.exponentAt(c));
+                for (int line = 0; line < size; line++)
+                    assertEquals(expected.destinations[line], board.lineDestinations(direction, line));
+            }
+        }
+    }
+
+    @Test
+    public void packedMovesMatchReference() {
+        checkMovesMatchReference(GameBoard.PACKED_SIZE);
+    }
+
+    @Test
+    public void largeBoardMovesMatchReference() {
+        checkMovesMatchReference(GameBoard.MAX_SIZE);
+    }
+
+    @Test
+    public void fullCheckerboardCantMove() {
+        for (int size = GameBoard.MIN_SIZE; size <= GameBoard.MAX_SIZE; size++) {
+            int[] cells = new int[size * size];
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++)
+                    cells[row * size + col] = 1 + (row + col) % 2;
+            }
+            GameBoard board = boardOf(cells, size);
+            assertFalse(board.canMove());
+            for (int direction : DIRECTIONS)
+                assertEquals(GameBoard.NO_MOVE, board.moveInto(direction, new GameBoard(size)));
+        }
+    }
+
+    @Test
+    public void tilesAtTheCapDontMerge() {
+        for (int size = GameBoard.MIN_SIZE; size <= GameBoard.MAX_SIZE; size++) {
+            GameBoard board = new GameBoard(size);
+            board.setExponent(0, maxExponent(size));
+            board.setExponent(1, maxExponent(size));
+            GameBoard into = new GameBoard(size);
+            assertEquals(GameBoard.NO_MOVE, board.moveInto(BitBoard.LEFT, into));
+            assertTrue(board.moveInto(BitBoard.RIGHT, into) != GameBoard.NO_MOVE);
+            assertEquals(maxExponent(size), into.exponentAt(size - 1));
+            assertEquals(maxExponent(size), into.exponentAt(size - 2));
+        }
+    }
+
+    @Test
+    public void transposeSwapsRowsAndColumns() {
+        Random random = new Random(SEED);
+        for (int n = 0; n < BOARDS; n++) {
+            long board = random.nextLong();
+            long transposed = BitBoard.transpose(board);
+            for (int row = 0; row < BitBoard.SIZE; row++) {
+                for (int col = 0; col < BitBoard.SIZE; col++)
+                    assertEquals(BitBoard.exponentAt(board, row * BitBoard.SIZE + col),
+                            BitBoard.exponentAt(transposed, col * BitBoard.SIZE + row));
+            }
+            assertEquals(board, BitBoard.transpose(transposed));
+        }
+    }
+}
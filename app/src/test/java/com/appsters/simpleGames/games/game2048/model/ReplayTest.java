@@ -0,0 +1,161 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays seeded games the way the screen does and checks that their {@link GameRecord},
+ * packed and read back, replays to the same boards and scores.
+ */
+public class ReplayTest {
+
+    private static final long SEED = 2048L;
+    private static final int MOVES = 400;
+
+    /**
+     * A game as played, with the board and score after every move (index 0 = the opening).
+     */
+    private static class Played {
+        final GameRecord record;
+        final List<GameBoard> boards = new ArrayList<>();
+        final List<Integer> scores = new ArrayList<>();
+
+        Played(GameRecord record) {
+            this.record = record;
+        }
+
+        int finalScore() {
+            return scores.get(scores.size() - 1);
+        }
+    }
+
+    private static GameBoard copyOf(GameBoard board) {
+        GameBoard copy = new GameBoard(board.size());
+        copy.copyFrom(board);
+        return copy;
+    }
+
+    /**
+     * Random moves until {@code moves} are played or the board is stuck; each move is
+     * recorded and followed by the record's next spawn, as in Game2048ViewModel.
+     */
+    private static Played play(int size, long seed, int moves) {
+        Random random = new Random(seed);
+        Played played = new Played(new GameRecord(size, seed));
+        GameBoard board = new GameBoard(size);
+        GameBoard moved = new GameBoard(size);
+        Replay.deal(seed, board);
+        int score = 0;
+        played.boards.add(copyOf(board));
+        played.scores.add(score);
+
+        while (played.record.size() < moves && board.canMove()) {
+            int direction = random.nextInt(4);
+            int points = board.moveInto(direction, moved);
+            if (points == GameBoard.NO_MOVE)
+                continue;
+            score += points;
+            played.record.add(direction);
+            moved.spawn(played.record.nextSpawnBits());
+            board.copyFrom(moved);
+            played.boards.add(copyOf(board));
+            played.scores.add(score);
+        }
+        return played;
+    }
+
+    private static void checkReplaysFromBytes(int size) throws IOException {
+        Played played = play(size, SEED + size, MOVES);
+        GameRecord record = GameRecord.fromBytes(played.record.toBytes());
+
+        assertEquals(size, record.boardSize);
+        assertEquals(played.record.seed, record.seed);
+        assertEquals(played.record.size(), record.size());
+        for (int i = 0; i < record.size(); i++)
+            assertEquals(played.record.moveAt(i), record.moveAt(i));
+
+        // Forward, back and forward again must land on the same states
+        Replay replay = new Replay(record);
+        Random random = new Random(SEED);
+        for (int n = 0; n < 50; n++) {
+            int position = random.nextInt(record.size() + 1);
+            replay.seek(position);
+            assertEquals(position, replay.getPosition());
+            assertTrue(replay.getBoard().sameAs(played.boards.get(position)));
+            assertEquals((int) played.scores.get(position), replay.getScore());
+            assertTrue(replay.isValid());
+        }
+
+        assertTrue(Replay.verifies(record, played.finalScore()));
+        assertFalse(Replay.verifies(record, played.finalScore() + 2));
+    }
+
+    @Test
+    public void packedGameReplaysFromBytes() throws IOException {
+        checkReplaysFromBytes(GameBoard.PACKED_SIZE);
+    }
+
+    @Test
+    public void largeGameReplaysFromBytes() throws IOException {
+        checkReplaysFromBytes(6);
+    }
+
+    @Test
+    public void emptyRecordReplaysToTheOpening() throws IOException {
+        GameRecord record = GameRecord.fromBytes(new GameRecord(5, SEED).toBytes());
+        GameBoard opening = new GameBoard(5);
+        Replay.deal(SEED, opening);
+
+        Replay replay = new Replay(record);
+        replay.seek(0);
+        assertTrue(replay.getBoard().sameAs(opening));
+        assertTrue(Replay.verifies(record, 0));
+    }
+
+    @Test
+    public void undoneMoveBringsBackTheSameTile() {
+        Played played = play(GameBoard.PACKED_SIZE, SEED, 20);
+        GameRecord record = played.record;
+        int last = record.moveAt(record.size() - 1);
+        long spawn = record.nextSpawnBits();
+
+        record.removeLast();
+        record.add(last);
+        assertEquals(spawn, record.nextSpawnBits());
+        assertTrue(Replay.verifies(record, played.finalScore()));
+    }
+
+    @Test
+    public void recordWithAMoveThatChangesNothingFails() {
+        // Find an opening where some move leaves the board as it is; no real game records it
+        GameBoard opening = new GameBoard(GameBoard.PACKED_SIZE);
+        GameBoard into = new GameBoard(GameBoard.PACKED_SIZE);
+        for (long seed = 0; seed < 1000; seed++) {
+            Replay.deal(seed, opening);
+            for (int direction = 0; direction < 4; direction++) {
+                if (opening.moveInto(direction, into) != GameBoard.NO_MOVE)
+                    continue;
+                GameRecord record = new GameRecord(GameBoard.PACKED_SIZE, seed);
+                record.add(direction);
+                assertFalse(Replay.verifies(record, 0));
+                return;
+            }
+        }
+        throw new AssertionError("No opening with a move that changes nothing");
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedRecordIsRejected() throws IOException {
+        byte[] bytes = play(GameBoard.PACKED_SIZE, SEED, 100).record.toBytes();
+        GameRecord.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
@@ -0,0 +1,130 @@
+package com.appsters.simpleGames.games.game2048.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Round-trips {@link UndoHistory} and {@link SavedGame} through their packed bytes, on a
+ * board that isn't packed (one byte a cell) as well as a 4x4 one.
+ */
+public class SavedGameTest {
+
+    private static final long SEED = 2048L;
+    private static final int SIZE = 6;
+
+    private static GameBoard randomBoard(Random random, int size) {
+        GameBoard board = new GameBoard(size);
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            if (random.nextBoolean())
+                board.setExponent(cell, 1 + random.nextInt(size == GameBoard.PACKED_SIZE ? 15 : 30));
+        }
+        return board;
+    }
+
+    private static void checkUndoHistoryRoundTrips(int size) throws IOException {
+        Random random = new Random(SEED + size);
+        UndoHistory history = new UndoHistory(size);
+        GameBoard[] boards = new GameBoard[100];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = randomBoard(random, size);
+            history.push(boards[i], i * 4);
+        }
+
+        UndoHistory read = new UndoHistory(size);
+        read.readBytes(history.toBytes());
+        assertEquals(boards.length, read.size());
+        GameBoard restored = new GameBoard(size);
+        for (int i = boards.length - 1; i >= 0; i--) {
+            read.restoreLast(restored);
+            assertTrue(restored.sameAs(boards[i]));
+            assertEquals(i * 4, read.lastScore());
+            read.pop();
+        }
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    public void undoHistoryRoundTrips() throws IOException {
+        checkUndoHistoryRoundTrips(SIZE);
+    }
+
+    @Test
+    public void packedUndoHistoryRoundTrips() throws IOException {
+        checkUndoHistoryRoundTrips(GameBoard.PACKED_SIZE);
+    }
+
+    @Test
+    public void fullUndoHistoryKeepsTheNewestStates() throws IOException {
+        Random random = new Random(SEED);
+        UndoHistory history = new UndoHistory(SIZE, 10);
+        GameBoard[] boards = new GameBoard[25];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = randomBoard(random, SIZE);
+            history.push(boards[i], i);
+        }
+
+        // Read into a smaller history: only the newest that fit are kept
+        UndoHistory read = new UndoHistory(SIZE, 4);
+        read.readBytes(history.toBytes());
+        assertEquals(4, read.size());
+        GameBoard restored = new GameBoard(SIZE);
+        for (int i = boards.length - 1; i >= boards.length - 4; i--) {
+            read.restoreLast(restored);
+            assertTrue(restored.sameAs(boards[i]));
+            assertEquals(i, read.lastScore());
+            read.pop();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void undoHistoryOfAnotherSizeIsRejected() throws IOException {
+        UndoHistory history = new UndoHistory(SIZE);
+        history.push(randomBoard(new Random(SEED), SIZE), 0);
+        new UndoHistory(SIZE + 1).readBytes(history.toBytes());
+    }
+
+    @Test
+    public void savedGameRoundTrips() throws IOException {
+        Random random = new Random(SEED);
+        GameBoard board = randomBoard(random, SIZE);
+        UndoHistory history = new UndoHistory(SIZE);
+        history.push(randomBoard(random, SIZE), 12);
+        GameRecord record = new GameRecord(SIZE, SEED);
+        for (int i = 0; i < 77; i++)
+            record.add(i & 3);
+        SavedGame game = new SavedGame(board, 1234, history.toBytes(), record.toBytes());
+
+        SavedGame read = SavedGame.fromBytes(game.toBytes());
+        assertTrue(read.board.sameAs(board));
+        assertEquals(1234, read.score);
+        assertArrayEquals(game.undoHistory, read.undoHistory);
+        assertArrayEquals(game.record, read.record);
+    }
+
+    @Test
+    public void savedGameWithoutHistoryOrRecordRoundTrips() throws IOException {
+        GameBoard board = randomBoard(new Random(SEED), GameBoard.PACKED_SIZE);
+        SavedGame read = SavedGame.fromBytes(new SavedGame(board, 8, null, null).toBytes());
+        assertTrue(read.board.sameAs(board));
+        assertEquals(8, read.score);
+        assertNull(read.undoHistory);
+        assertNull(read.record);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedSavedGameIsRejected() throws IOException {
+        Random random = new Random(SEED);
+        UndoHistory history = new UndoHistory(SIZE);
+        history.push(randomBoard(random, SIZE), 0);
+        byte[] bytes = new SavedGame(randomBoard(random, SIZE), 0, history.toBytes(), null).toBytes();
+        SavedGame.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
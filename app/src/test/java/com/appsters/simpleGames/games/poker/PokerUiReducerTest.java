@@ -0,0 +1,334 @@
+package com.appsters.simpleGames.games.poker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.appsters.simpleGames.games.poker.PokerUiState.HandStage;
+import com.appsters.simpleGames.games.poker.PokerUiState.Phase;
+import com.appsters.simpleGames.games.poker.model.Card;
+import com.appsters.simpleGames.games.poker.model.PokerHand;
+import com.appsters.simpleGames.games.poker.model.PokerTable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plays seeded hands through {@link PokerUiReducer} and checks the snapshots it publishes.
+ */
+public class PokerUiReducerTest {
+
+    private static final long SEED = 42L;
+
+    private static class Wallet implements PokerHand.Wallet {
+        int coins;
+
+        Wallet(int coins) {
+            this.coins = coins;
+        }
+
+        @Override
+        public int getCoins() {
+            return coins;
+        }
+
+        @Override
+        public void addCoins(int delta) {
+            coins += delta;
+        }
+    }
+
+    private static List<String> codes(List<Card> cards, int shown) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < cards.size(); i++)
+            codes.add(i < shown ? cards.get(i).getCode() : "");
+        return codes;
+    }
+
+    private static PokerUiState started(Wallet wallet, PokerHand hand, int buyIn) {
+        hand.start(buyIn, SEED);
+        return PokerUiReducer.handStarted(PokerUiState.INITIAL, hand, wallet.coins);
+    }
+
+    @Test
+    public void handStartedOpensPreflopBetting() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 50);
+
+        assertEquals(Phase.IN_HAND, state.phase);
+        assertEquals(HandStage.PREFLOP, state.handStage);
+        assertEquals(950, state.coins);
+        assertEquals(50, state.handBuyIn);
+        assertTrue(state.bettingEnabled);
+        assertTrue(state.isRaiseEnabled());
+        assertFalse(state.revealEnabled);
+        // The slider can go up to the whole balance and starts at one buy-in
+        assertEquals(950, state.raiseMax);
+        assertEquals(50, state.raiseAmount);
+
+        assertEquals(codes(hand.getPlayerHole(), 2), state.playerCardCodes);
+        assertEquals(codes(hand.getDealerHole(), 2), state.dealerCardCodes);
+        assertFalse(state.dealerCardsFaceUp);
+        assertEquals(Arrays.asList("", "", "", "", ""), state.boardCardCodes);
+        assertEquals(0, state.revealedCount);
+        assertEquals(50, state.playerContribution);
+        assertEquals(hand.payoutIfWin(), state.payoutIfWin);
+    }
+
+    @Test
+    public void handStartedClampsRaiseToBalance() {
+        Wallet wallet = new Wallet(10);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 5);
+
+        assertEquals(5, state.raiseMax);
+        assertEquals(5, state.raiseAmount);
+        assertEquals(5, PokerUiReducer.raiseSliderMoved(state, 100).raiseAmount);
+        assertEquals(1, PokerUiReducer.raiseSliderMoved(state, -3).raiseAmount);
+        assertEquals(3, PokerUiReducer.raiseSliderMoved(state, 2).raiseAmount);
+    }
+
+    @Test
+    public void playerCheckedClosesBetting() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = PokerUiReducer.playerChecked(started(wallet, hand, 5), hand);
+
+        assertEquals(Phase.IN_HAND, state.phase);
+        assertFalse(state.bettingEnabled);
+        assertFalse(state.isRaiseEnabled());
+        assertFalse(state.revealEnabled);
+        assertEquals(1, state.raiseMax);
+        assertEquals(1, state.raiseAmount);
+        assertTrue(state.status.startsWith("Pre-flop: You check."));
+    }
+
+    @Test
+    public void playerRaisedTakesCoinsAndGrowsPot() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 5);
+
+        hand.playerRaise(20);
+        state = PokerUiReducer.playerRaised(state, hand, wallet.coins, 20);
+
+        assertEquals(975, state.coins);
+        assertEquals(25, state.playerContribution);
+        assertEquals(hand.payoutIfWin(), state.payoutIfWin);
+        assertFalse(state.bettingEnabled);
+        assertTrue(state.status.startsWith("Pre-flop: You raise +20."));
+    }
+
+    @Test
+    public void dealerActedPromptsForTheNextStreet() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 5);
+
+        hand.playerRaise(10);
+        state = PokerUiReducer.playerRaised(state, hand, wallet.coins, 10);
+        int dealerRaise = hand.dealerRaise(15);
+        state = PokerUiReducer.dealerActed(state, hand, wallet.coins, true, dealerRaise);
+
+        assertEquals(970, state.coins);
+        assertEquals(30, state.playerContribution);
+        assertFalse(state.bettingEnabled);
+        assertTrue(state.revealEnabled);
+        assertEquals("Reveal Flop", state.getRevealButtonText());
+        assertEquals("Pre-flop: You raise +10. Dealer raises +15. You call. Tap to reveal the flop.", state.status);
+    }
+
+    @Test
+    public void streetRevealedShowsBoardAndReopensBetting() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = PokerUiReducer.playerChecked(started(wallet, hand, 5), hand);
+        state = PokerUiReducer.dealerActed(state, hand, wallet.coins, false, 0);
+        state = PokerUiReducer.outsPending(state);
+
+        hand.revealNext();
+        state = PokerUiReducer.streetRevealed(state, hand);
+
+        assertEquals(HandStage.FLOP, state.handStage);
+        assertEquals(3, state.revealedCount);
+        assertEquals(codes(hand.getBoard(), 3), state.boardCardCodes);
+        assertTrue(state.bettingEnabled);
+        assertFalse(state.revealEnabled);
+        assertEquals(995, state.raiseMax);
+        assertEquals(5, state.raiseAmount);
+        // Outs of the previous street no longer apply
+        assertNull(state.outs);
+        assertFalse(state.outsPending);
+        assertEquals("Flop revealed. Your move: check or raise.", state.status);
+    }
+
+    @Test
+    public void riverBettingLeadsStraightToShowdown() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 5);
+        for (int street = 0; street < 3; street++) {
+            state = PokerUiReducer.playerChecked(state, hand);
+            state = PokerUiReducer.dealerActed(state, hand, wallet.coins, false, 0);
+            hand.revealNext();
+            state = PokerUiReducer.streetRevealed(state, hand);
+        }
+        assertEquals(HandStage.RIVER, state.handStage);
+
+        state = PokerUiReducer.playerChecked(state, hand);
+        state = PokerUiReducer.dealerActed(state, hand, wallet.coins, false, 0);
+        assertFalse(state.revealEnabled);
+        assertEquals("River: You check. Dealer checks.", state.status);
+
+        PokerHand.Showdown result = hand.showdown();
+        state = PokerUiReducer.showdown(state, hand, wallet.coins, result);
+
+        assertEquals(Phase.SHOWDOWN, state.phase);
+        assertEquals(wallet.coins, state.coins);
+        assertTrue(state.dealerCardsFaceUp);
+        assertFalse(state.bettingEnabled);
+        assertFalse(state.revealEnabled);
+        assertEquals(1, state.raiseMax);
+        assertNull(state.equity);
+        assertEquals(codes(hand.getBoard(), 5), state.boardCardCodes);
+        assertEquals(codes(hand.getDealerHole(), 2), state.dealerCardCodes);
+        assertTrue(state.status.contains("+" + result.payout + " coins."));
+    }
+
+    @Test
+    public void coinsRefreshedReclampsRaiseOnlyMidHand() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 50);
+
+        state = PokerUiReducer.coinsRefreshed(state, 30, false);
+        assertEquals(30, state.raiseMax);
+        assertEquals(30, state.raiseAmount);
+
+        PokerUiState lobby = PokerUiReducer.coinsRefreshed(PokerUiState.INITIAL, 500, true);
+        assertEquals(500, lobby.coins);
+        assertTrue(lobby.freeAvailable);
+        assertEquals(1, lobby.raiseMax);
+    }
+
+    @Test
+    public void seatsSelectedIsIgnoredMidHand() {
+        Wallet wallet = new Wallet(1000);
+        PokerHand hand = new PokerHand(wallet);
+        PokerUiState state = started(wallet, hand, 5);
+
+        assertSame(state, PokerUiReducer.seatsSelected(state, 4));
+        assertEquals(4, PokerUiReducer.seatsSelected(PokerUiState.INITIAL, 4).seatCount);
+        assertTrue(PokerUiReducer.seatsSelected(PokerUiState.INITIAL, 4).isTable());
+    }
+
+    @Test
+    public void tableHandStartedSeatsFaceDownOpponents() {
+        Wallet wallet = new Wallet(1000);
+        PokerTable table = new PokerTable(wallet, 4);
+        table.start(5, SEED);
+        PokerUiState state = PokerUiReducer.tableHandStarted(PokerUiReducer.seatsSelected(PokerUiState.INITIAL, 4),
+                table, wallet.coins);
+
+        assertEquals(Phase.IN_HAND, state.phase);
+        assertEquals(HandStage.PREFLOP, state.handStage);
+        assertTrue(state.bettingEnabled);
+        assertEquals(995, state.raiseMax);
+        assertEquals(5, state.raiseAmount);
+        assertEquals(codes(table.getHole(PokerTable.PLAYER), 2), state.playerCardCodes);
+        assertTrue(state.dealerCardCodes.isEmpty());
+        assertEquals(20, state.payoutIfWin);
+        assertEquals(5, state.playerContribution);
+
+        assertEquals(3, state.opponents.size());
+        for (int seat = 1; seat < 4; seat++) {
+            PokerUiState.Seat opponent = state.opponents.get(seat - 1);
+            assertEquals("Seat " + (seat + 1), opponent.name);
+            assertEquals(table.stackOf(seat), opponent.stack);
+            assertEquals(codes(table.getHole(seat), 2), opponent.cardCodes);
+            assertFalse(opponent.faceUp);
+            assertFalse(opponent.winner);
+            assertEquals("", opponent.action);
+        }
+    }
+
+    @Test
+    public void tableBettingShowsEachSeatsAction() {
+        Wallet wallet = new Wallet(1000);
+        PokerTable table = new PokerTable(wallet, 3);
+        table.start(5, SEED);
+        PokerUiState state = PokerUiReducer.tableHandStarted(PokerUiReducer.seatsSelected(PokerUiState.INITIAL, 3),
+                table, wallet.coins);
+
+        state = PokerUiReducer.tablePlayerActed(state, table, 10);
+        assertFalse(state.bettingEnabled);
+        assertEquals(1, state.raiseMax);
+        assertEquals("Pre-flop: You raise +10. Opponents are thinking...", state.status);
+
+        table.bet(10, new int[] { 0, 0, 20 });
+        state = PokerUiReducer.tableBettingDone(state, table, wallet.coins);
+
+        assertEquals(965, state.coins);
+        assertEquals(35, state.playerContribution);
+        assertEquals(105, state.payoutIfWin);
+        assertTrue(state.revealEnabled);
+        assertEquals("Call", state.opponents.get(0).action);
+        assertEquals("Raise +20", state.opponents.get(1).action);
+        assertEquals("Pre-flop: You raise +10. Seat 3 raises +20. Everyone calls. Tap to reveal the flop.",
+                state.status);
+
+        table.revealNext();
+        state = PokerUiReducer.tableStreetRevealed(state, table);
+        assertEquals(HandStage.FLOP, state.handStage);
+        assertTrue(state.bettingEnabled);
+        assertEquals(codes(table.getBoard(), 3), state.boardCardCodes);
+        assertEquals("", state.opponents.get(1).action);
+    }
+
+    @Test
+    public void tableShowdownTurnsOpponentsFaceUp() {
+        Wallet wallet = new Wallet(1000);
+        PokerTable table = new PokerTable(wallet, 5);
+        table.start(5, SEED);
+        PokerUiState state = PokerUiReducer.tableHandStarted(PokerUiReducer.seatsSelected(PokerUiState.INITIAL, 5),
+                table, wallet.coins);
+        int[] checks = new int[5];
+        for (int street = 0; street < 3; street++) {
+            state = PokerUiReducer.tablePlayerActed(state, table, 0);
+            table.bet(0, checks);
+            state = PokerUiReducer.tableBettingDone(state, table, wallet.coins);
+            table.revealNext();
+            state = PokerUiReducer.tableStreetRevealed(state, table);
+        }
+        state = PokerUiReducer.tablePlayerActed(state, table, 0);
+        table.bet(0, checks);
+        state = PokerUiReducer.tableBettingDone(state, table, wallet.coins);
+        assertFalse(state.revealEnabled);
+
+        PokerTable.Showdown showdown = table.evaluateShowdown();
+        table.settle(showdown);
+        state = PokerUiReducer.tableShowdown(state, table, wallet.coins, showdown);
+
+        assertEquals(Phase.SHOWDOWN, state.phase);
+        assertEquals(wallet.coins, state.coins);
+        assertFalse(state.bettingEnabled);
+        assertFalse(state.revealEnabled);
+        assertEquals(codes(table.getBoard(), 5), state.boardCardCodes);
+        for (int seat = 1; seat < 5; seat++) {
+            PokerUiState.Seat opponent = state.opponents.get(seat - 1);
+            assertTrue(opponent.faceUp);
+            assertEquals(showdown.handName(seat), opponent.action);
+            assertEquals(showdown.isWinner(seat), opponent.winner);
+        }
+        String result = showdown.isWinner(PokerTable.PLAYER)
+                ? "You win! (" + showdown.handName(PokerTable.PLAYER) + ") +" + showdown.payouts[PokerTable.PLAYER]
+                : "You lose. (" + showdown.handName(PokerTable.PLAYER) + ") +0";
+        assertTrue(state.status.startsWith(result + " coins."));
+    }
+}
@@ -0,0 +1,126 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Draws the poker card atlas (app/src/main/res/drawable-nodpi/card_atlas.png). Not part of
+ * the app build (it needs java.awt); run it with a JDK 11+:
+ *
+ * java -Djava.awt.headless=true tools/CardAtlasGenerator.java \
+ *     app/src/main/res/drawable-nodpi/card_atlas.png
+ *
+ * Layout (must match CardAtlas): 13 columns x 5 rows of CELL_WIDTH x CELL_HEIGHT cells.
+ * The face of card id (suit * 13 + rank - 2, suits in Card.Suit order) is cell id; the
+ * back is the first cell of the last row.
+ */
+public class CardAtlasGenerator {
+
+    private static final int CELL_WIDTH = 100;
+    private static final int CELL_HEIGHT = 150;
+    private static final int COLUMNS = 13;
+    private static final int ROWS = 5;
+
+    private static final String RANKS = "23456789TJQKA";
+    // Clubs, diamonds, hearts, spades
+    private static final String[] SUITS = { "\u2663", "\u2666", "\u2665", "\u2660" };
+    private static final Color RED = new Color(0xC6, 0x28, 0x28);
+    private static final Color BLACK = new Color(0x21, 0x21, 0x21);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: CardAtlasGenerator <output png>");
+            System.exit(2);
+        }
+
+        BufferedImage atlas = new BufferedImage(COLUMNS * CELL_WIDTH, ROWS * CELL_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        for (int suit = 0; suit < 4; suit++) {
+            for (int rank = 0; rank < 13; rank++) {
+                int id = suit * 13 + rank;
+                drawFace(g, (id % COLUMNS) * CELL_WIDTH, (id / COLUMNS) * CELL_HEIGHT, rank, suit);
+            }
+        }
+        drawBack(g, 0, 4 * CELL_HEIGHT);
+        g.dispose();
+
+        File out = new File(args[0]);
+        ImageIO.write(atlas, "png", out);
+        System.out.println("Wrote " + out + " (" + out.length() + " bytes)");
+    }
+
+    private static RoundRectangle2D outline(int x, int y) {
+        return new RoundRectangle2D.Float(x + 1.5f, y + 1.5f, CELL_WIDTH - 3, CELL_HEIGHT - 3, 12, 12);
+    }
+
+    private static void drawFace(Graphics2D g, int x, int y, int rank, int suit) {
+        RoundRectangle2D card = outline(x, y);
+        g.setColor(Color.WHITE);
+        g.fill(card);
+        g.setColor(new Color(0xBDBDBD));
+        g.setStroke(new BasicStroke(2f));
+        g.draw(card);
+
+        String rankText = RANKS.charAt(rank) == 'T' ? "10" : String.valueOf(RANKS.charAt(rank));
+        String suitText = SUITS[suit];
+        g.setColor(suit == 1 || suit == 2 ? RED : BLACK);
+
+        // Corner index, repeated upside down in the opposite corner
+        AffineTransform saved = g.getTransform();
+        for (int corner = 0; corner < 2; corner++) {
+            if (corner == 1)
+                g.rotate(Math.PI, x + CELL_WIDTH / 2.0, y + CELL_HEIGHT / 2.0);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, rankText.length() > 1 ? 21 : 26));
+            drawCentered(g, rankText, x + 18, y + 28);
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 22));
+            drawCentered(g, suitText, x + 18, y + 50);
+        }
+        g.setTransform(saved);
+
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 64));
+        drawCentered(g, suitText, x + CELL_WIDTH / 2, y + CELL_HEIGHT / 2 + 22);
+    }
+
+    private static void drawBack(Graphics2D g, int x, int y) {
+        RoundRectangle2D card = outline(x, y);
+        g.setColor(Color.WHITE);
+        g.fill(card);
+        g.setColor(new Color(0xBDBDBD));
+        g.setStroke(new BasicStroke(2f));
+        g.draw(card);
+
+        RoundRectangle2D inner = new RoundRectangle2D.Float(x + 8, y + 8, CELL_WIDTH - 16, CELL_HEIGHT - 16, 8, 8);
+        g.setColor(new Color(0x1565C0));
+        g.fill(inner);
+
+        // Diamond lattice clipped to the inner panel
+        g.setClip(inner);
+        g.setColor(new Color(0x42A5F5));
+        g.setStroke(new BasicStroke(1.5f));
+        for (int d = -CELL_HEIGHT; d < CELL_WIDTH + CELL_HEIGHT; d += 12) {
+            g.drawLine(x + d, y, x + d + CELL_HEIGHT, y + CELL_HEIGHT);
+            g.drawLine(x + d, y, x + d - CELL_HEIGHT, y + CELL_HEIGHT);
+        }
+        g.setClip(null);
+        g.setColor(Color.WHITE);
+        g.setStroke(new BasicStroke(2f));
+        g.draw(inner);
+    }
+
+    private static void drawCentered(Graphics2D g, String text, int centerX, int baseline) {
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(text, centerX - metrics.stringWidth(text) / 2, baseline);
+    }
+}
@@ -0,0 +1,57 @@
+package com.appsters.simpleGames.games.poker.sim;
+
+import com.appsters.simpleGames.games.poker.model.LookupHandEvaluator;
+import com.appsters.simpleGames.games.poker.model.PokerHand;
+import com.appsters.simpleGames.games.poker.model.PreflopEquityTable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Scripted player behaviours for {@link PokerSimulator}. Every raise is one buy-in.
+ */
+public enum PlayerPolicy {
+    /** Never raises. */
+    CHECK,
+    /** Raises on every street. */
+    ALWAYS_RAISE,
+    /**
+     * Raises pre-flop with a top ~30% starting hand, later only when the hole cards
+     * improve on the board.
+     */
+    VALUE,
+    /** Raises on a coin flip. */
+    RANDOM;
+
+    // Roughly the top 30% of starting hands against a random hand
+    private static final double VALUE_PREFLOP_EQUITY = 0.55;
+
+    /**
+     * Returns the player's raise for the current street, or 0 to check.
+     *
+     * @param preflopTable may be null, in which case VALUE raises pre-flop with pairs only
+     */
+    public int decideRaise(PokerHand hand, PreflopEquityTable preflopTable, SplittableRandom random) {
+        switch (this) {
+            case ALWAYS_RAISE:
+                return hand.getBuyIn();
+            case VALUE:
+                return isStrong(hand, preflopTable) ? hand.getBuyIn() : 0;
+            case RANDOM:
+                return random.nextBoolean() ? hand.getBuyIn() : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isStrong(PokerHand hand, PreflopEquityTable preflopTable) {
+        long board = hand.getRevealedBoardMask();
+        if (board == 0) {
+            if (preflopTable == null)
+                return hand.getPlayerHole().get(0).rank == hand.getPlayerHole().get(1).rank;
+            return preflopTable.equity(hand.getPlayerHole().get(0),
+                    hand.getPlayerHole().get(1)) >= VALUE_PREFLOP_EQUITY;
+        }
+        int category = LookupHandEvaluator.categoryOf(LookupHandEvaluator.evaluate(hand.getPlayerHoleMask() | board));
+        return category > LookupHandEvaluator.categoryOf(LookupHandEvaluator.evaluate(board));
+    }
+}
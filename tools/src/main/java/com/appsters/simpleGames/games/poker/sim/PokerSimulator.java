@@ -0,0 +1,241 @@
+package com.appsters.simpleGames.games.poker.sim;
+
+import com.appsters.simpleGames.games.poker.model.EquityDealerStrategy;
+import com.appsters.simpleGames.games.poker.model.PokerEquityEngine;
+import com.appsters.simpleGames.games.poker.model.PokerHand;
+import com.appsters.simpleGames.games.poker.model.PreflopEquityTable;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Headless batch simulator for tuning payouts and dealer tiers. Plays the same
+ * {@link PokerHand} rules and {@link EquityDealerStrategy} as the app against scripted
+ * {@link PlayerPolicy players}, many sessions in parallel, and reports per buy-in tier:
+ * return to player (coins paid back / coins put in), mean and standard deviation of the
+ * net result per hand, and the share of sessions ruined (unable to buy in again) by a
+ * given hand count. Part of the :tools JVM module, built against the app's poker model
+ * and not shipped with the app:
+ *
+ * ./gradlew :tools:simulatePoker --args="--sessions 2000 --hands 500"
+ *
+ * Dealer decisions use the tier's sample budget capped at --dealer-samples and no time
+ * limit, so results don't depend on machine speed. The cards of every session follow from
+ * --seed; the dealer's rollouts are not seeded, so reruns differ by sampling noise only.
+ */
+public class PokerSimulator {
+
+    private static final int[] TIERS = { 5, 50, 500 };
+
+    private int sessions = 1000;
+    private int handsPerSession = 1000;
+    private int bankroll = 1000;
+    private long dealerSamples = 2000;
+    private long seed = 1L;
+    private String tablePath = "app/src/main/assets/" + PreflopEquityTable.ASSET_NAME;
+    private final List<PlayerPolicy> policies = new ArrayList<>();
+
+    /**
+     * Outcome of one session (one player sitting at one tier until out of hands or coins).
+     */
+    private static class Session {
+        long wagered;
+        long returned;
+        int hands;
+        double netSum;
+        double netSquares;
+        // Hands played before the player could no longer afford the buy-in, or -1
+        int ruinedAfter = -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        PokerSimulator simulator = new PokerSimulator();
+        try {
+            simulator.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: PokerSimulator [--sessions N] [--hands N] [--bankroll N] [--dealer-samples N]"
+                    + " [--seed N] [--table FILE] [--policy CHECK|ALWAYS_RAISE|VALUE|RANDOM]...");
+            System.exit(2);
+        }
+        simulator.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Missing value for " + name);
+            String value = args[++i];
+            try {
+                switch (name) {
+                    case "--sessions":
+                        sessions = Integer.parseInt(value);
+                        break;
+                    case "--hands":
+                        handsPerSession = Integer.parseInt(value);
+                        break;
+                    case "--bankroll":
+                        bankroll = Integer.parseInt(value);
+                        break;
+                    case "--dealer-samples":
+                        dealerSamples = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--table":
+                        tablePath = value;
+                        break;
+                    case "--policy":
+                        policies.add(PlayerPolicy.valueOf(value.toUpperCase(Locale.ROOT)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number for " + name + ": " + value);
+            }
+        }
+        if (policies.isEmpty()) {
+            for (PlayerPolicy policy : PlayerPolicy.values())
+                policies.add(policy);
+        }
+    }
+
+    private void run() throws IOException {
+        PreflopEquityTable table;
+        try (InputStream in = new FileInputStream(tablePath)) {
+            table = PreflopEquityTable.read(in);
+        }
+
+        System.out.printf(Locale.ROOT, "%d sessions x %d hands, bankroll %d, dealer samples <= %d, seed %d%n",
+                sessions, handsPerSession, bankroll, dealerSamples, seed);
+        PokerEquityEngine engine = new PokerEquityEngine();
+        try {
+            for (int tier : TIERS) {
+                if (!PokerHand.canAffordBuyIn(bankroll, tier)) {
+                    System.out.printf(Locale.ROOT, "%nBuy-in %d: bankroll too small%n", tier);
+                    continue;
+                }
+                PokerEquityEngine.Budget tierBudget = EquityDealerStrategy.budgetForBuyIn(tier);
+                PokerEquityEngine.Budget budget = new PokerEquityEngine.Budget(
+                        Math.min(tierBudget.maxSamples, dealerSamples), Long.MAX_VALUE / 2, tierBudget.targetMargin);
+                EquityDealerStrategy dealer = new EquityDealerStrategy(engine, table, budget,
+                        EquityDealerStrategy.modelsPlayerRange(tier));
+
+                System.out.printf(Locale.ROOT, "%nBuy-in %d (pays %dx)%n", tier, PokerHand.multiplierFor(tier));
+                System.out.printf(Locale.ROOT, "%-13s %10s %8s %10s %9s  %s%n", "policy", "hands", "RTP",
+                        "net/hand", "sd/hand", "ruined by hand");
+                for (PlayerPolicy policy : policies)
+                    report(policy, simulate(tier, policy, dealer, table));
+            }
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private Session[] simulate(int tier, PlayerPolicy policy, EquityDealerStrategy dealer, PreflopEquityTable table) {
+        // Each session gets its own stream from (seed, tier, policy, index), independent of scheduling
+        long base = new SplittableRandom(seed ^ ((long) tier << 32) ^ policy.ordinal()).nextLong();
+        // Sessions run on the common pool; the dealer's rollouts then fork into it too
+        return IntStream.range(0, sessions).parallel()
+                .mapToObj(i -> playSession(tier, policy, dealer, table,
+                        new SplittableRandom(base + i * 0x9E3779B97F4A7C15L)))
+                .toArray(Session[]::new);
+    }
+
+    private Session playSession(int tier, PlayerPolicy policy, EquityDealerStrategy dealer,
+            PreflopEquityTable table, SplittableRandom random) {
+        int[] coins = { bankroll };
+        PokerHand hand = new PokerHand(new PokerHand.Wallet() {
+            @Override
+            public int getCoins() {
+                return coins[0];
+            }
+
+            @Override
+            public void addCoins(int delta) {
+                coins[0] += delta;
+            }
+        });
+
+        Session session = new Session();
+        while (session.hands < handsPerSession) {
+            if (!PokerHand.canAffordBuyIn(coins[0], tier)) {
+                session.ruinedAfter = session.hands;
+                break;
+            }
+            hand.start(tier, random.nextLong());
+            while (true) {
+                int raise = policy.decideRaise(hand, table, random);
+                boolean raised = raise > 0 && hand.canRaise(raise);
+                if (raised)
+                    hand.playerRaise(raise);
+                hand.dealerRaise(dealer.decideRaise(hand.dealerContext(raised)));
+                if (hand.isRiver())
+                    break;
+                hand.revealNext();
+            }
+            PokerHand.Showdown result = hand.showdown();
+
+            int net = result.payout - hand.getPlayerContribution();
+            session.hands++;
+            session.wagered += hand.getPlayerContribution();
+            session.returned += result.payout;
+            session.netSum += net;
+            session.netSquares += (double) net * net;
+        }
+        return session;
+    }
+
+    private void report(PlayerPolicy policy, Session[] results) {
+        long hands = 0, wagered = 0, returned = 0;
+        double netSum = 0, netSquares = 0;
+        for (Session s : results) {
+            hands += s.hands;
+            wagered += s.wagered;
+            returned += s.returned;
+            netSum += s.netSum;
+            netSquares += s.netSquares;
+        }
+        double mean = hands == 0 ? 0 : netSum / hands;
+        double sd = hands < 2 ? 0 : Math.sqrt(Math.max(0, (netSquares - netSum * mean) / (hands - 1)));
+        double rtp = wagered == 0 ? 0 : (double) returned / wagered;
+
+        StringBuilder ruin = new StringBuilder();
+        for (int checkpoint : ruinCheckpoints()) {
+            int ruined = 0;
+            for (Session s : results) {
+                if (s.ruinedAfter >= 0 && s.ruinedAfter <= checkpoint)
+                    ruined++;
+            }
+            ruin.append(String.format(Locale.ROOT, " %d:%.1f%%", checkpoint, 100.0 * ruined / results.length));
+        }
+        System.out.printf(Locale.ROOT, "%-13s %10d %7.2f%% %+10.3f %9.2f %s%n", policy, hands, rtp * 100, mean, sd,
+                ruin);
+    }
+
+    /**
+     * Hand counts 10, 25, 50, 100, 250, ... up to the session length.
+     */
+    private List<Integer> ruinCheckpoints() {
+        List<Integer> checkpoints = new ArrayList<>();
+        for (int scale = 10; scale <= handsPerSession; scale *= 10) {
+            for (int tenths : new int[] { 10, 25, 50 }) {
+                int checkpoint = scale * tenths / 10;
+                if (checkpoint <= handsPerSession && !checkpoints.contains(checkpoint))
+                    checkpoints.add(checkpoint);
+            }
+        }
+        if (checkpoints.isEmpty() || checkpoints.get(checkpoints.size() - 1) != handsPerSession)
+            checkpoints.add(handsPerSession);
+        return checkpoints;
+    }
+}
@@ -0,0 +1,56 @@
+package com.appsters.simpleGames.games.poker.tools;
+
+import com.appsters.simpleGames.games.poker.model.LookupHandEvaluator;
+import com.appsters.simpleGames.games.poker.model.PokerEquityEngine;
+import com.appsters.simpleGames.games.poker.model.PreflopEquityTable;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Regenerates the {@link PreflopEquityTable} asset. Part of the :tools JVM module, not
+ * shipped with the app; by default it overwrites app/src/main/assets/preflop_equity.bin:
+ *
+ * ./gradlew :tools:generatePreflopTable
+ *
+ * Each class is sampled with 2M rollouts against a random hand (about +-0.07% at 95%).
+ */
+public class PreflopEquityTableGenerator {
+
+    private static final PokerEquityEngine.Budget BUDGET = new PokerEquityEngine.Budget(2_000_000,
+            Long.MAX_VALUE / 2, 0);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: PreflopEquityTableGenerator <output file>");
+            System.exit(2);
+        }
+
+        PokerEquityEngine engine = new PokerEquityEngine();
+        double[] win = new double[PreflopEquityTable.CLASS_COUNT];
+        double[] tie = new double[PreflopEquityTable.CLASS_COUNT];
+        try {
+            for (int index = 0; index < PreflopEquityTable.CLASS_COUNT; index++) {
+                int row = index / 13;
+                int col = index % 13;
+                // Representative hand: first card a spade, second a spade only if suited.
+                int first = 3 * 13 + Math.max(row, col);
+                int second = (row > col ? 3 : 2) * 13 + Math.min(row, col);
+                long hole = LookupHandEvaluator.cardBit(first) | LookupHandEvaluator.cardBit(second);
+
+                PokerEquityEngine.Equity e = engine.estimate(hole, 0L, null, BUDGET);
+                win[index] = e.win;
+                tie[index] = e.tie;
+                System.out.printf("%-4s %.4f%n", PreflopEquityTable.className(index), e.equity());
+            }
+        } finally {
+            engine.shutdown();
+        }
+
+        try (OutputStream out = new FileOutputStream(args[0])) {
+            PreflopEquityTable.of(win, tie).write(out);
+        }
+        System.out.println("Wrote " + args[0]);
+    }
+}